@@ -0,0 +1,85 @@
+package com.javatestbank.benchmarks;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.service.QuestionImportService;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Deterministic in-memory question banks shaped like the real data: numbered
+ * "chapter.question" texts over 20 chapters, four options, every fifth question
+ * multi-answer and every third with a code snippet.
+ */
+final class BankFixture {
+
+    static final int CHAPTERS = 20;
+    private static final long SEED = 42;
+
+    private BankFixture() {}
+
+    static List<Question> questions(int size) {
+        Random random = new Random(SEED);
+        List<Question> bank = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            int chapter = 1 + random.nextInt(CHAPTERS);
+            List<String> options = List.of("Option A " + i, "Option B " + i, "Option C " + i, "Option D " + i);
+            Question q = new Question(chapter + "." + i + " Which statement about feature " + i + " is true?",
+                    new ArrayList<>(options), random.nextInt(4), "Because of rule " + i + ".",
+                    i % 3 == 0 ? "int x = " + i + ";\nSystem.out.println(x++);" : null);
+            q.setId((long) i);
+            q.setChapter(chapter);
+            if (i % 5 == 0) {
+                q.setCorrectIndices(new ArrayList<>(List.of(0, 2)));
+                q.setCorrectIndex(0);
+            } else {
+                q.setCorrectIndices(new ArrayList<>(List.of(q.getCorrectIndex())));
+            }
+            q.setAnswerExplanations(new ArrayList<>(List.of("a", "b", "c", "d")));
+            bank.add(q);
+        }
+        return bank;
+    }
+
+    static QuestionSnapshot[] snapshots(List<Question> bank) {
+        return bank.stream().map(QuestionSnapshot::of).toArray(QuestionSnapshot[]::new);
+    }
+
+    static List<QuestionImportService.QuestionImportDTO> importRecords(int size) {
+        List<QuestionImportService.QuestionImportDTO> records = new ArrayList<>(size);
+        for (Question q : questions(size)) {
+            QuestionImportService.QuestionImportDTO dto = new QuestionImportService.QuestionImportDTO();
+            dto.question = q.getText();
+            dto.codeSnippet = q.getCodeSnippet();
+            dto.answers = new ArrayList<>();
+            for (int o = 0; o < q.getOptions().size(); o++) {
+                QuestionImportService.AnswerImportDTO a = new QuestionImportService.AnswerImportDTO();
+                a.answer = q.getOptions().get(o);
+                a.is_right = q.getCorrectIndices().contains(o);
+                a.explanation = a.is_right ? q.getExplanation() : null;
+                dto.answers.add(a);
+            }
+            records.add(dto);
+        }
+        return records;
+    }
+
+    /**
+     * A repository interface backed by canned answers: each named method returns
+     * {@code handlers.get(name).apply(args)}; anything else fails loudly.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> repository, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] { repository }, (proxy, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) return handler.apply(args);
+            if (method.getName().equals("toString")) return repository.getSimpleName() + " stub";
+            throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.javatestbank.benchmarks;
+
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.service.AnswerGrader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** The grading step of {@code /check-answer}, over snapshots as served by the question cache. */
+@State(Scope.Thread)
+public class GradingBenchmark extends BenchmarkDefaults {
+
+    @Param({"1000", "10000", "100000"})
+    public int bankSize;
+
+    private final AnswerGrader grader = new AnswerGrader();
+    private QuestionSnapshot[] snapshots;
+    private final int[] multiSelection = {0, 2};
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        snapshots = BankFixture.snapshots(BankFixture.questions(bankSize));
+    }
+
+    // Walks the bank so cache-miss behaviour scales with bank size like real traffic
+    private QuestionSnapshot next() {
+        QuestionSnapshot q = snapshots[cursor];
+        cursor = cursor + 1 == snapshots.length ? 0 : cursor + 1;
+        return q;
+    }
+
+    @Benchmark
+    public boolean gradeSingle() {
+        return grader.grade(next(), cursor & 3);
+    }
+
+    @Benchmark
+    public boolean gradeMulti() {
+        return grader.grade(next(), multiSelection);
+    }
+}
@@ -0,0 +1,55 @@
+package com.javatestbank.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.service.QuestionImportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Per-record import cost: DTO to entity mapping alone, and JSON binding plus mapping
+ * as the streaming import does it. Bank size only changes the record mix.
+ */
+@State(Scope.Thread)
+public class ImportMappingBenchmark extends BenchmarkDefaults {
+
+    @Param({"1000", "10000", "100000"})
+    public int bankSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private QuestionImportService importService;
+    private List<QuestionImportService.QuestionImportDTO> records;
+    private byte[][] json;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Mapping touches none of the collaborators besides metrics
+        importService = new QuestionImportService(objectMapper, null, null, null, null, null, new SimpleMeterRegistry(), 100);
+        records = BankFixture.importRecords(bankSize);
+        json = new byte[records.size()][];
+        for (int i = 0; i < records.size(); i++) json[i] = objectMapper.writeValueAsBytes(records.get(i));
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = cursor + 1 == records.size() ? 0 : cursor + 1;
+        return i;
+    }
+
+    @Benchmark
+    public Question mapRecord() {
+        return importService.toQuestion(records.get(next()));
+    }
+
+    @Benchmark
+    public Question bindAndMapRecord() throws Exception {
+        return importService.toQuestion(objectMapper.readValue(json[next()], QuestionImportService.QuestionImportDTO.class));
+    }
+}
@@ -0,0 +1,67 @@
+package com.javatestbank.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.model.QuestionSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response building and serialization for the hottest endpoints: a 15-question quiz,
+ * the check-answer body (built like QuestionController does) and a summary page.
+ */
+@State(Scope.Thread)
+public class JsonSerializationBenchmark extends BenchmarkDefaults {
+
+    @Param({"1000", "10000", "100000"})
+    public int bankSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private QuestionSnapshot[] snapshots;
+    private List<QuestionSummary> summaryPage;
+    private final Map<String, Object> stats = Map.of("total", 120L, "counts", Map.of(0, 30L, 1, 50L, 2, 25L, 3, 15L));
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        snapshots = BankFixture.snapshots(BankFixture.questions(bankSize));
+        summaryPage = Arrays.stream(snapshots, 0, 20)
+                .map(q -> new QuestionSummary(q.getId(), q.getText(), q.getOptions().size(), q.getChapter()))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] quiz() throws Exception {
+        int from = cursor;
+        cursor = cursor + 15 >= snapshots.length - 15 ? 0 : cursor + 15;
+        return objectMapper.writeValueAsBytes(Arrays.asList(snapshots).subList(from, from + 15));
+    }
+
+    @Benchmark
+    public byte[] checkAnswerResponse() throws Exception {
+        QuestionSnapshot question = snapshots[cursor];
+        cursor = cursor + 1 == snapshots.length ? 0 : cursor + 1;
+        Map<String, Object> body = Map.of(
+            "correct", question.getCorrectIndex() == 1,
+            "correctIndex", question.getCorrectIndex(),
+            "correctIndices", question.getCorrectIndices(),
+            "explanation", question.getExplanation(),
+            "explanationStatus", "ready",
+            "answerExplanations", question.getAnswerExplanations(),
+            "stats", stats
+        );
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] summaryPage() throws Exception {
+        return objectMapper.writeValueAsBytes(summaryPage);
+    }
+}
@@ -0,0 +1,47 @@
+package com.javatestbank.benchmarks;
+
+import com.javatestbank.backend.service.PasswordService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login cost per bcrypt strength (app.security.bcrypt-strength), as latency percentiles
+ * through PasswordService's pool with the login cache off. Pick the highest strength
+ * whose p99, times the expected login burst per core, stays inside the latency budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHashingBenchmark extends BenchmarkDefaults {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    private PasswordService passwordService;
+
+    @Setup
+    public void setUp() {
+        passwordService = new PasswordService(null, strength, 1, 16, 0, 1, PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordService.shutdown();
+    }
+
+    @Benchmark
+    public boolean verifyLogin() {
+        return passwordService.verifyAdmin(PASSWORD).join();
+    }
+}
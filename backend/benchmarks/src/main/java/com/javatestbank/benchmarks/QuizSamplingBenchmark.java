@@ -0,0 +1,67 @@
+package com.javatestbank.benchmarks;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.repository.UserAnswerRepository;
+import com.javatestbank.backend.service.QuestionIdIndex;
+import com.javatestbank.backend.service.UserMasteryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Id selection for {@code /questions/quiz}: uniform, chapter-filtered and adaptive. */
+@State(Scope.Benchmark)
+public class QuizSamplingBenchmark extends BenchmarkDefaults {
+
+    private static final long USER_ID = 1L;
+    private static final int QUIZ_SIZE = 15;
+
+    @Param({"1000", "10000", "100000"})
+    public int bankSize;
+
+    private QuestionIdIndex index;
+    private UserMasteryStore mastery;
+    private final List<Integer> chapters = List.of(9, 10, 11, 12, 13, 17);
+
+    @Setup
+    public void setUp() {
+        List<Question> bank = BankFixture.questions(bankSize);
+        List<Object[]> idRows = new ArrayList<>(bank.size());
+        for (Question q : bank) idRows.add(new Object[] { q.getId(), q.getChapter() });
+        index = new QuestionIdIndex(BankFixture.stub(QuestionRepository.class,
+                Map.of("findAllIdsAndChapters", args -> idRows)));
+        index.refresh();
+
+        // A user who has answered 30% of the bank, two thirds of it correctly
+        Random random = new Random(7);
+        List<Object[]> history = new ArrayList<>();
+        for (Question q : bank) {
+            if (random.nextInt(10) < 3) history.add(new Object[] { q.getId(), q.getChapter(), random.nextInt(3) > 0 });
+        }
+        mastery = new UserMasteryStore(BankFixture.stub(UserAnswerRepository.class,
+                Map.of("findMasteryRows", args -> history)), index, 10);
+        mastery.sample(USER_ID, QUIZ_SIZE, null); // Loads the user
+    }
+
+    @Benchmark
+    public long[] uniform() {
+        return index.sample(QUIZ_SIZE, null);
+    }
+
+    @Benchmark
+    public long[] byChapters() {
+        return index.sample(QUIZ_SIZE, chapters);
+    }
+
+    @Benchmark
+    public long[] adaptive() {
+        return mastery.sample(USER_ID, QUIZ_SIZE, null);
+    }
+}
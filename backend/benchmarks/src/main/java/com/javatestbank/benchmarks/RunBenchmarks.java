@@ -0,0 +1,39 @@
+package com.javatestbank.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the suites with the GC profiler (allocation rate per op) and writes JSON
+ * results to {@code jmh-<timestamp>.json} for diffing between releases. Accepts the
+ * usual JMH arguments, e.g. {@code -p bankSize=10000 Grading}.
+ *
+ * <pre>
+ * mvn -f backend install -DskipTests
+ * mvn -f backend/benchmarks package
+ * java -jar backend/benchmarks/target/benchmarks.jar
+ * </pre>
+ */
+public final class RunBenchmarks {
+
+    private RunBenchmarks() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class);
+        if (!cli.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result("jmh-" + stamp + ".json");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.javatestbank.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Collects per-endpoint latencies (microseconds) and error counts for the final report. */
+final class LatencyRecorder {
+
+    /** Summary of one endpoint over the measured window. */
+    record Stats(String endpoint, long requests, long errors, double throughput,
+                 double p50Millis, double p95Millis, double p99Millis, double maxMillis) {}
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long micros, boolean error) {
+        series.computeIfAbsent(endpoint, e -> new Series()).add(micros, error);
+    }
+
+    void reset() {
+        series.clear();
+    }
+
+    Map<String, Stats> summarize(double windowSeconds) {
+        Map<String, Stats> result = new LinkedHashMap<>();
+        series.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+            long[] sorted;
+            long errors;
+            synchronized (e.getValue()) {
+                sorted = Arrays.copyOf(e.getValue().values, e.getValue().size);
+                errors = e.getValue().errors;
+            }
+            Arrays.sort(sorted);
+            result.put(e.getKey(), new Stats(e.getKey(), sorted.length, errors, sorted.length / windowSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0));
+        });
+        return result;
+    }
+
+    // Nearest-rank percentile, in milliseconds
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1000.0;
+    }
+
+    private static final class Series {
+        long[] values = new long[1024];
+        int size;
+        long errors;
+
+        synchronized void add(long micros, boolean error) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = micros;
+            if (error) errors++;
+        }
+    }
+}
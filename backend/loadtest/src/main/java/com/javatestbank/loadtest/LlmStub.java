@@ -0,0 +1,83 @@
+package com.javatestbank.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the OpenAI-compatible {@code /v1/chat/completions} endpoint. Every call
+ * waits {@code latencyMillis} (plus up to {@code jitterMillis}), then returns an analysis
+ * in the shape AIService parses, including a usage block. A fraction of calls can fail
+ * with 429 or 500 so the retry paths get exercised too.
+ */
+final class LlmStub implements AutoCloseable {
+
+    private static final String BODY = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":" +
+            "\"{\\\"correctIndex\\\": 0, \\\"explanation\\\": \\\"Stub explanation for load testing.\\\"}\"}}]," +
+            "\"usage\":{\"prompt_tokens\":180,\"completion_tokens\":45,\"total_tokens\":225}}";
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    final AtomicLong calls = new AtomicLong();
+
+    LlmStub(int port, long latencyMillis, long jitterMillis, double errorRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 512);
+        // Calls mostly sleep, so one thread per concurrent call is fine
+        this.workers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "llm-stub");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(workers);
+        server.createContext("/v1/chat/completions", this::handle);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            calls.incrementAndGet();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+            if (delay > 0) Thread.sleep(delay);
+
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                int status = random.nextBoolean() ? 429 : 500;
+                if (status == 429) exchange.getResponseHeaders().add("Retry-After", "1");
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+}
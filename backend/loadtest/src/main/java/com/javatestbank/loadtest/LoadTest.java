@@ -0,0 +1,307 @@
+package com.javatestbank.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a running backend (profile {@code loadtest}) with simulated students and
+ * reports p50/p95/p99 latency and throughput per endpoint.
+ *
+ * <p>Each student registers, then loops: fetch a quiz, answer every question
+ * through {@code /check-answer}, load their progress, think, repeat. An admin seeds
+ * the bank through the streaming import first and can keep importing during the run.
+ * The runner also hosts the LLM stub the loadtest profile points AIService at.
+ *
+ * <pre>
+ * mvn -f backend -Ploadtest spring-boot:run -Dspring-boot.run.profiles=loadtest
+ * mvn -f backend/loadtest package
+ * java -jar backend/loadtest/target/loadtest.jar --students=2000 --duration-sec=120 --stub-latency-ms=800
+ * </pre>
+ *
+ * Options (all {@code --name=value}): base-url, students, duration-sec, warmup-sec,
+ * quiz-size, quiz-mode (random|adaptive), think-ms, seed-questions, ai-fraction,
+ * import-every-sec, import-batch, stub-port, stub-latency-ms, stub-jitter-ms,
+ * stub-error-rate, admin-username, admin-password, report (JSON output path).
+ */
+public final class LoadTest {
+
+    private static final String QUIZ = "GET /api/questions/quiz";
+    private static final String CHECK = "POST /api/check-answer";
+    private static final String PROGRESS = "GET /api/user/{username}/progress";
+    private static final String IMPORT = "POST /api/admin/questions/import/stream";
+    private static final String REGISTER = "POST /api/register";
+    private static final int SEED_CHUNK = 500;
+
+    private final Map<String, String> options;
+    private final String baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "loadtest-timer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Random words = new Random(1);
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+    private int importedSoFar;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080").replaceAll("/$", "");
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        int students = intOption("students", 500);
+        int durationSec = intOption("duration-sec", 60);
+        int warmupSec = intOption("warmup-sec", 10);
+
+        try (LlmStub stub = new LlmStub(intOption("stub-port", 8089), intOption("stub-latency-ms", 500),
+                intOption("stub-jitter-ms", 200), Double.parseDouble(option("stub-error-rate", "0")))) {
+            stub.start();
+
+            String adminToken = login(option("admin-username", "admin"), option("admin-password", "admin123"));
+            long seedStart = System.nanoTime();
+            measureFromNanos = seedStart; // Seeding is reported on its own below
+            importQuestions(adminToken, intOption("seed-questions", 2000));
+            System.out.printf("Seeded %d questions in %.1fs%n", importedSoFar, (System.nanoTime() - seedStart) / 1e9);
+
+            List<Student> roster = registerStudents(students);
+            System.out.printf("Registered %d students; running %ds (+%ds warm-up)%n", roster.size(), durationSec, warmupSec);
+
+            Map<String, LatencyRecorder.Stats> seedStats = recorder.summarize(1);
+            recorder.reset();
+            measureFromNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSec);
+            long deadline = measureFromNanos + TimeUnit.SECONDS.toNanos(durationSec);
+
+            int importEvery = intOption("import-every-sec", 0);
+            if (importEvery > 0) {
+                int batch = intOption("import-batch", 100);
+                timer.scheduleWithFixedDelay(() -> importQuestions(adminToken, batch), importEvery, importEvery, TimeUnit.SECONDS);
+            }
+
+            List<CompletableFuture<Void>> running = new ArrayList<>(roster.size());
+            for (Student s : roster) running.add(loop(s, deadline));
+            CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).get(durationSec + warmupSec + 120L, TimeUnit.SECONDS);
+            timer.shutdownNow();
+
+            Map<String, LatencyRecorder.Stats> stats = recorder.summarize(durationSec);
+            print(stats, durationSec, stub.calls.get());
+            writeReport(stats, seedStats.get(IMPORT), roster.size(), durationSec);
+        }
+    }
+
+    // One simulated student's closed loop, as a chain of async calls so thousands share a few threads
+    private CompletableFuture<Void> loop(Student s, long deadline) {
+        if (System.nanoTime() >= deadline) return CompletableFuture.completedFuture(null);
+        String url = "/api/questions/quiz?count=" + intOption("quiz-size", 10) + "&mode=" + option("quiz-mode", "random");
+        return send(QUIZ, get(url, s.token))
+                .thenCompose(quiz -> answerAll(s, parse(quiz), 0, deadline))
+                .thenCompose(v -> send(PROGRESS, get("/api/user/" + s.name + "/progress", s.token)))
+                .thenCompose(v -> think())
+                .thenCompose(v -> loop(s, deadline))
+                .exceptionally(e -> null); // Already recorded; the student just stops
+    }
+
+    private CompletableFuture<Void> answerAll(Student s, JsonNode quiz, int i, long deadline) {
+        if (quiz == null || i >= quiz.size() || System.nanoTime() >= deadline) return CompletableFuture.completedFuture(null);
+        JsonNode q = quiz.get(i);
+        int options = Math.max(1, q.path("options").size());
+        ObjectNode body = mapper.createObjectNode()
+                .put("questionId", q.path("id").asLong())
+                .put("selectedOptionIndex", ThreadLocalRandom.current().nextInt(options));
+        return send(CHECK, post("/api/check-answer", body.toString(), s.token))
+                .thenCompose(v -> answerAll(s, quiz, i + 1, deadline));
+    }
+
+    private CompletableFuture<Void> think() {
+        int thinkMs = intOption("think-ms", 1000);
+        if (thinkMs <= 0) return CompletableFuture.completedFuture(null);
+        long delay = ThreadLocalRandom.current().nextLong(thinkMs / 2, thinkMs * 3L / 2 + 1);
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            if (start < measureFromNanos) return; // Warm-up
+            boolean failed = error != null || response.statusCode() >= 400;
+            recorder.record(endpoint, (System.nanoTime() - start) / 1000, failed);
+        }).thenApply(response -> {
+            if (response.statusCode() >= 400) throw new IllegalStateException(endpoint + " returned " + response.statusCode());
+            return response;
+        });
+    }
+
+    private List<Student> registerStudents(int count) throws InterruptedException {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        Semaphore inFlight = new Semaphore(64);
+        List<CompletableFuture<Student>> pending = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = "student-" + run + "-" + i;
+            String body = mapper.createObjectNode().put("username", name).put("password", "pw-" + i).toString();
+            inFlight.acquire();
+            pending.add(send(REGISTER, post("/api/register", body, null))
+                    .thenApply(r -> new Student(name, parse(r).path("token").asText()))
+                    .whenComplete((s, e) -> inFlight.release()));
+        }
+        List<Student> roster = new ArrayList<>(count);
+        for (CompletableFuture<Student> f : pending) {
+            try {
+                roster.add(f.join());
+            } catch (Exception e) {
+                System.err.println("Register failed: " + e.getMessage());
+            }
+        }
+        return roster;
+    }
+
+    private String login(String username, String password) {
+        String body = mapper.createObjectNode().put("username", username).put("password", password).toString();
+        HttpResponse<String> response = http.sendAsync(post("/api/login", body, null), HttpResponse.BodyHandlers.ofString()).join();
+        if (response.statusCode() != 200) throw new IllegalStateException("Admin login failed: " + response.statusCode());
+        return parse(response).path("token").asText();
+    }
+
+    private synchronized void importQuestions(String adminToken, int count) {
+        for (int done = 0; done < count; done += SEED_CHUNK) {
+            ArrayNode records = mapper.createArrayNode();
+            for (int i = done; i < Math.min(count, done + SEED_CHUNK); i++) records.add(generateRecord(importedSoFar + i));
+            try {
+                HttpResponse<String> accepted = send(IMPORT, post("/api/admin/questions/import/stream?duplicates=report", records.toString(), adminToken)).join();
+                awaitImportJob(parse(accepted).path("jobId").asText(), adminToken);
+            } catch (Exception e) {
+                System.err.println("Import failed: " + e.getMessage());
+            }
+        }
+        importedSoFar += count;
+    }
+
+    // Imports run as server-side jobs; the seed has to be in the bank before students start
+    private void awaitImportJob(String jobId, String adminToken) throws InterruptedException {
+        HttpRequest poll = HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/import-jobs/" + jobId))
+                .header("Authorization", "Bearer " + adminToken).GET().build();
+        while (true) {
+            JsonNode job = parse(http.sendAsync(poll, HttpResponse.BodyHandlers.ofString()).join());
+            if (job.has("finishedAt")) {
+                if (job.path("httpStatus").asInt() >= 400) throw new IllegalStateException("import job " + jobId + " " + job.path("status").asText());
+                return;
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    // Random vocabulary sentences, so generated questions are not near-duplicates of each other
+    private ObjectNode generateRecord(int n) {
+        boolean needsAi = words.nextDouble() < Double.parseDouble(option("ai-fraction", "0.05"));
+        int correct = words.nextInt(4);
+        ObjectNode record = mapper.createObjectNode().put("question", (1 + n % 20) + "." + n + " " + sentence(12) + "?");
+        if (n % 3 == 0) record.put("codeSnippet", "int v" + n + " = " + n + ";\nSystem.out.println(v" + n + " * 2);");
+        ArrayNode answers = record.putArray("answers");
+        for (int o = 0; o < 4; o++) {
+            ObjectNode a = answers.addObject().put("answer", sentence(4)).put("is_right", o == correct);
+            if (o == correct && !needsAi) a.put("explanation", sentence(20) + ".");
+        }
+        return record;
+    }
+
+    private String sentence(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) sb.append(' ');
+            int syllables = 1 + words.nextInt(3);
+            for (int s = 0; s < syllables; s++) sb.append("ba be bi bo bu ka ke ki ko ku la le li lo lu ma me mi mo mu ra re ri ro ru ta te ti to tu".split(" ")[words.nextInt(30)]);
+        }
+        return sb.toString();
+    }
+
+    private void print(Map<String, LatencyRecorder.Stats> stats, int durationSec, long stubCalls) {
+        System.out.printf("%n%-38s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (LatencyRecorder.Stats s : stats.values()) {
+            System.out.printf("%-38s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", s.endpoint(), s.requests(), s.errors(),
+                    s.throughput(), s.p50Millis(), s.p95Millis(), s.p99Millis(), s.maxMillis());
+        }
+        System.out.printf("LLM stub calls: %d over %ds%n", stubCalls, durationSec);
+    }
+
+    private void writeReport(Map<String, LatencyRecorder.Stats> stats, LatencyRecorder.Stats seed, int students, int durationSec)
+            throws Exception {
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File file = new File(option("report", "loadtest-" + stamp + ".json"));
+        ObjectNode root = mapper.createObjectNode();
+        root.put("baseUrl", baseUrl).put("students", students).put("durationSec", durationSec);
+        root.putPOJO("options", options);
+        root.putPOJO("seedImport", seed);
+        root.putPOJO("endpoints", stats.values());
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET();
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(300))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b.build();
+    }
+
+    private JsonNode parse(HttpResponse<String> response) {
+        try {
+            return mapper.readTree(response.body());
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable response: " + e.getMessage());
+        }
+    }
+
+    private String option(String name, String fallback) {
+        return options.getOrDefault(name, fallback);
+    }
+
+    private int intOption(String name, int fallback) {
+        return Integer.parseInt(option(name, Integer.toString(fallback)));
+    }
+
+    private record Student(String name, String token) {}
+}
@@ -0,0 +1,39 @@
+package com.javatestbank.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.service.ChatCompletionProvider;
+import com.javatestbank.backend.service.CircuitBreaker;
+import com.javatestbank.backend.service.HttpChatCompletionProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Transport and failure isolation for AIService: the pooled HTTP provider client
+ * (timeouts, optional hedging) and the circuit breaker in front of it.
+ */
+@Configuration
+public class AIClientConfig {
+
+    @Bean
+    public ChatCompletionProvider chatCompletionProvider(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                                         @Value("${ai.api.base-url:https://api.groq.com/openai/v1}") String baseUrl,
+                                                         @Value("${ai.api.key}") String apiKey,
+                                                         @Value("${ai.client.connect-timeout-ms:3000}") long connectTimeoutMs,
+                                                         @Value("${ai.client.deadline-ms:30000}") long deadlineMs,
+                                                         @Value("${ai.client.hedge-after-ms:0}") long hedgeAfterMs) {
+        return new HttpChatCompletionProvider(objectMapper, meterRegistry, baseUrl, apiKey,
+                Duration.ofMillis(connectTimeoutMs), Duration.ofMillis(deadlineMs), Duration.ofMillis(hedgeAfterMs));
+    }
+
+    @Bean
+    public CircuitBreaker aiCircuitBreaker(@Value("${ai.circuit.window-size:20}") int windowSize,
+                                           @Value("${ai.circuit.minimum-calls:10}") int minimumCalls,
+                                           @Value("${ai.circuit.failure-rate:0.5}") double failureRate,
+                                           @Value("${ai.circuit.open-seconds:30}") long openSeconds) {
+        return new CircuitBreaker("ai", windowSize, minimumCalls, failureRate, Duration.ofSeconds(openSeconds));
+    }
+}
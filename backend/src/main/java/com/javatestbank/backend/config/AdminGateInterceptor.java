@@ -0,0 +1,36 @@
+package com.javatestbank.backend.config;
+
+import com.javatestbank.backend.service.TokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Restricts admin handlers to admin tokens. Runs after handler mapping and checks the
+ * pattern the request actually matched, so encoded ({@code /api/%61dmin}) or
+ * {@code ;}-parameter variants of the path cannot route to an admin handler unchecked.
+ */
+public class AdminGateInterceptor implements HandlerInterceptor {
+
+    static final String ADMIN_PREFIX = "/api/admin/";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null || !pattern.toString().startsWith(ADMIN_PREFIX)) return true;
+        // CORS preflights carry no Authorization header
+        if (CorsUtils.isPreFlightRequest(request)) return true;
+
+        TokenService.Principal principal = (TokenService.Principal) request.getAttribute(TokenAuthFilter.PRINCIPAL);
+        if (principal != null && principal.admin()) return true;
+
+        response.setStatus(principal == null ? HttpServletResponse.SC_UNAUTHORIZED : HttpServletResponse.SC_FORBIDDEN);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"" + (principal == null ? "Authentication required" : "Admin only") + "\"}");
+        return false;
+    }
+}
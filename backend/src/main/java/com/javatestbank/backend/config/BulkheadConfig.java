@@ -0,0 +1,118 @@
+package com.javatestbank.backend.config;
+
+import com.javatestbank.backend.service.Bulkhead;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Separate bulkheads for the two dependencies that can stall request threads: the
+ * database pool and the AI provider. Saturating one sheds load for that dependency
+ * only (503 on the affected endpoints) instead of tying up every thread, and each
+ * publishes its queue depth and rejections under {@code app.bulkhead.*}.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    public Bulkhead databaseBulkhead(@Value("${app.bulkhead.db.max-concurrent}") int maxConcurrent,
+                                     @Value("${app.bulkhead.db.max-queued}") int maxQueued,
+                                     @Value("${app.bulkhead.db.max-wait-ms}") long maxWaitMs) {
+        return new Bulkhead("db", maxConcurrent, maxQueued, Duration.ofMillis(maxWaitMs));
+    }
+
+    @Bean
+    public Bulkhead aiBulkhead(@Value("${app.bulkhead.ai.max-concurrent}") int maxConcurrent,
+                               @Value("${app.bulkhead.ai.max-queued}") int maxQueued,
+                               @Value("${app.bulkhead.ai.max-wait-ms}") long maxWaitMs) {
+        return new Bulkhead("ai", maxConcurrent, maxQueued, Duration.ofMillis(maxWaitMs));
+    }
+
+    // Static so it is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor dataSourceBulkhead(@Qualifier("databaseBulkhead") ObjectProvider<Bulkhead> bulkhead) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, bulkhead.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Holds a bulkhead slot from {@code getConnection} until the connection is closed,
+     * i.e. for as long as the caller holds a pooled connection. Sized to the pool, this
+     * moves the wait out of Hikari (30s, unbounded, unmetered) into a bounded queue.
+     */
+    static final class BulkheadDataSource extends DelegatingDataSource {
+
+        private final Bulkhead bulkhead;
+
+        BulkheadDataSource(DataSource target, Bulkhead bulkhead) {
+            super(target);
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            bulkhead.acquire();
+            try {
+                return releasingOnClose(obtainTargetDataSource().getConnection());
+            } catch (SQLException | RuntimeException e) {
+                bulkhead.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            bulkhead.acquire();
+            try {
+                return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                bulkhead.release();
+                throw e;
+            }
+        }
+
+        private Connection releasingOnClose(Connection target) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals": return proxy == args[0];
+                            case "hashCode": return System.identityHashCode(proxy);
+                            default: break;
+                        }
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            try {
+                                target.close();
+                            } finally {
+                                bulkhead.release();
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.javatestbank.backend.config;
+
+import com.javatestbank.backend.service.AIAnalysisCache;
+import com.javatestbank.backend.service.QuestionCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Publishes the caches' own counters (the same numbers as their admin stats endpoints)
+ * as {@code app.cache.requests{cache,result}} and {@code app.cache.size{cache}}; hit
+ * ratios are derived from the counters at query time.
+ */
+@Configuration
+public class CacheMetrics {
+
+    @Bean
+    public MeterBinder aiAnalysisCacheMetrics(AIAnalysisCache cache) {
+        return registry -> {
+            bind(registry, "ai-analysis", "memory_hit", cache, AIAnalysisCache::stats, "memoryHits");
+            bind(registry, "ai-analysis", "db_hit", cache, AIAnalysisCache::stats, "dbHits");
+            bind(registry, "ai-analysis", "miss", cache, AIAnalysisCache::stats, "misses");
+            Gauge.builder("app.cache.size", cache, c -> number(c.stats(), "memoryEntries"))
+                    .tag("cache", "ai-analysis").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder questionCacheMetrics(QuestionCache cache) {
+        return registry -> {
+            bind(registry, "question", "hit", cache, QuestionCache::stats, "hits");
+            bind(registry, "question", "miss", cache, QuestionCache::stats, "misses");
+            Gauge.builder("app.cache.size", cache, c -> number(c.stats(), "entries"))
+                    .tag("cache", "question").register(registry);
+        };
+    }
+
+    // Meters hold their state weakly, so the state must be the (singleton) cache itself
+    private static <T> void bind(MeterRegistry registry, String cache, String result,
+                                 T state, Function<T, Map<String, Object>> stats, String key) {
+        FunctionCounter.builder("app.cache.requests", state, s -> number(stats.apply(s), key))
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static double number(Map<String, Object> stats, String key) {
+        Object v = stats.get(key);
+        return v instanceof Number n ? n.doubleValue() : 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.javatestbank.backend.config;
+
+import com.javatestbank.backend.model.Question;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Questions used to take IDENTITY ids. When the table predates {@code questions_seq},
+ * Hibernate creates the sequence starting at 1, which would collide with existing rows.
+ * This moves the sequence past the highest id before the app starts serving requests.
+ * It never moves the sequence backwards, so reruns are harmless. PostgreSQL and H2 are
+ * handled; on any other database the sequence is left alone and a warning is logged.
+ */
+@Component
+public class QuestionSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Taking the EntityManagerFactory ensures schema update (and sequence creation) ran first
+    public QuestionSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequence() {
+        String product = jdbcTemplate.execute((java.sql.Connection c) -> c.getMetaData().getDatabaseProductName());
+        // The pooled optimizer treats the sequence value as the top of the next block,
+        // so leave a full block of headroom above MAX(id)
+        if ("PostgreSQL".equalsIgnoreCase(product)) {
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT setval('questions_seq', GREATEST(" +
+                    "(SELECT COALESCE(MAX(id), 0) FROM questions) + ?, " +
+                    "(SELECT last_value FROM questions_seq)))",
+                    Long.class, Question.ID_ALLOCATION_SIZE);
+            log.info("questions_seq aligned at {}", value);
+        } else if ("H2".equalsIgnoreCase(product)) {
+            // BASE_VALUE is the value the next call returns, so RESTART WITH sets it directly
+            long target = maxId() + Question.ID_ALLOCATION_SIZE;
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE LOWER(SEQUENCE_NAME) = 'questions_seq'",
+                    Long.class);
+            if (next != null && next >= target) return;
+            jdbcTemplate.execute("ALTER SEQUENCE questions_seq RESTART WITH " + target);
+            log.info("questions_seq aligned at {}", target);
+        } else {
+            log.warn("questions_seq not aligned: unsupported database {}; ids may collide with rows older than the sequence", product);
+        }
+    }
+
+    private long maxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM questions", Long.class);
+        return max != null ? max : 0;
+    }
+}
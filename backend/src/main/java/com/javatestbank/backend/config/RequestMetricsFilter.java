@@ -0,0 +1,142 @@
+package com.javatestbank.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records SQL statements per request (per endpoint pattern and status) and writes one
+ * logfmt access line per request. Endpoint latency histograms come from Spring's own
+ * {@code http.server.requests} timer.
+ *
+ * <p>Async requests (e.g. streamed bodies) are recorded when they complete, with the
+ * statements of every dispatch. Statements a handler issues on other threads of its own
+ * are not attributed to the request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("access");
+    private static final String EXCHANGE_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".exchange";
+
+    private final MeterRegistry registry;
+    private final boolean accessLogEnabled;
+
+    public RequestMetricsFilter(MeterRegistry registry, @Value("${app.logging.access:true}") boolean accessLogEnabled) {
+        this.registry = registry;
+        this.accessLogEnabled = accessLogEnabled;
+    }
+
+    // Shared by the dispatches of one request
+    private static final class Exchange {
+        final long start = System.nanoTime();
+        final int[] queries = new int[1];
+        final AtomicBoolean recorded = new AtomicBoolean();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Exchange exchange = (Exchange) request.getAttribute(EXCHANGE_ATTRIBUTE);
+        if (exchange == null) {
+            exchange = new Exchange();
+            request.setAttribute(EXCHANGE_ATTRIBUTE, exchange);
+        }
+        StatementMetrics.countInto(exchange.queries);
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            StatementMetrics.stopCounting();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(exchange, request, response));
+            } else {
+                // An exception still propagating becomes the container's 500 unless a response was already sent
+                int status = failed && !response.isCommitted() ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+                record(exchange, request, status);
+            }
+        }
+    }
+
+    private void record(Exchange exchange, HttpServletRequest request, int status) {
+        if (!exchange.recorded.compareAndSet(false, true)) return;
+        // The matched pattern (/api/questions/{id}) keeps tag cardinality bounded
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        int queries = exchange.queries[0];
+        DistributionSummary.builder("app.http.request.queries")
+                .description("SQL statements issued on the request's threads while serving one request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .tag("status", String.valueOf(status))
+                .register(registry)
+                .record(queries);
+        if (accessLogEnabled) {
+            accessLog.info("method={} uri={} path=\"{}\" status={} durationMs={} queries={}",
+                    request.getMethod(), uri, request.getRequestURI(), status,
+                    (System.nanoTime() - exchange.start) / 1_000_000, queries);
+        }
+    }
+
+    // Records once the async cycle ends, with the status the client actually received
+    private final class CompletionListener implements AsyncListener {
+
+        private final Exchange exchange;
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+
+        CompletionListener(Exchange exchange, HttpServletRequest request, HttpServletResponse response) {
+            this.exchange = exchange;
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(exchange, request, response.getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        // A dispatch that starts another cycle registers a new listener (see doFilterInternal)
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    // Counts the statements of async dispatches too; the request is recorded on completion
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    // Actuator scrapes would drown out real traffic
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+}
@@ -0,0 +1,42 @@
+package com.javatestbank.backend.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sees every statement Hibernate prepares and logs a sample, replacing {@code show-sql},
+ * which printed every statement. Counting happens on the connections instead (see
+ * {@link StatementMetrics}), where JdbcTemplate queries are visible too.
+ */
+@Component
+public class SqlStatementInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Logger sqlLog = LoggerFactory.getLogger("sql.sampled");
+
+    private final double sampleRate;
+
+    public SqlStatementInspector(@Value("${app.sql.log-sample-rate:0}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (sampleRate > 0) hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sqlLog.info("sql=\"{}\"", sql.replace('"', '\''));
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,97 @@
+package com.javatestbank.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Counts SQL statements on the JDBC connections themselves, so Hibernate and
+ * JdbcTemplate queries alike show up in {@code app.db.statements} and in the
+ * per-request count kept for {@link RequestMetricsFilter}. A statement is counted when
+ * it is prepared or created, so a JDBC batch counts once however many rows it carries.
+ */
+@Configuration
+public class StatementMetrics {
+
+    private static final ThreadLocal<int[]> REQUEST_COUNT = new ThreadLocal<>();
+
+    // Static so it is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                    Counter statements = Counter.builder("app.db.statements")
+                            .description("SQL statements prepared on application connections (Hibernate and JdbcTemplate)")
+                            .register(registry.getObject());
+                    return new CountingDataSource(dataSource, statements);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /** Adds statements issued on this thread to {@code count} until {@link #stopCounting()}. */
+    static void countInto(int[] count) {
+        REQUEST_COUNT.set(count);
+    }
+
+    static void stopCounting() {
+        REQUEST_COUNT.remove();
+    }
+
+    static final class CountingDataSource extends DelegatingDataSource {
+
+        private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+        private final Counter statements;
+
+        CountingDataSource(DataSource target, Counter statements) {
+            super(target);
+            this.statements = statements;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(obtainTargetDataSource().getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(obtainTargetDataSource().getConnection(username, password));
+        }
+
+        private Connection counting(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals": return proxy == args[0];
+                            case "hashCode": return System.identityHashCode(proxy);
+                            default: break;
+                        }
+                        if (STATEMENT_FACTORIES.contains(method.getName())) {
+                            statements.increment();
+                            int[] count = REQUEST_COUNT.get();
+                            if (count != null) count[0]++;
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.javatestbank.backend.config;
+
+import com.javatestbank.backend.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the {@code Authorization: Bearer} token into a {@link TokenService.Principal}
+ * request attribute. Requests without a token pass through unauthenticated; handlers
+ * decide what that means, and {@link AdminGateInterceptor} guards the admin handlers.
+ */
+@Component
+public class TokenAuthFilter extends OncePerRequestFilter {
+
+    public static final String PRINCIPAL = "authPrincipal";
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TokenService.Principal principal = null;
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith(BEARER)) {
+            principal = tokenService.verify(header.substring(BEARER.length()).trim()).orElse(null);
+        }
+        if (principal != null) request.setAttribute(PRINCIPAL, principal);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,46 @@
+package com.javatestbank.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Older databases can hold several answers per (user, question) from the racy
+ * read-then-write path, which stops schema update from creating the unique index.
+ * This keeps the newest answer of each pair and then creates the index if missing.
+ */
+@Component
+public class UserAnswerUniquenessInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAnswerUniquenessInitializer.class);
+
+    private static final String DUPLICATE_IDS =
+            "SELECT ua.id FROM user_answers ua WHERE ua.user_id IS NOT NULL AND EXISTS (" +
+            "SELECT 1 FROM user_answers d WHERE d.user_id = ua.user_id AND d.question_id = ua.question_id AND d.id > ua.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate tx;
+
+    // Taking the EntityManagerFactory ensures schema update ran first
+    public UserAnswerUniquenessInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void ensureUniqueAnswers() {
+        Integer removed = tx.execute(status -> {
+            jdbcTemplate.update("DELETE FROM user_answer_indices WHERE user_answer_id IN (" + DUPLICATE_IDS + ")");
+            return jdbcTemplate.update("DELETE FROM user_answers WHERE id IN (" + DUPLICATE_IDS + ")");
+        });
+        if (removed != null && removed > 0) log.info("Removed {} duplicate user answers", removed);
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_user_answers_user_question ON user_answers (user_id, question_id)");
+    }
+}
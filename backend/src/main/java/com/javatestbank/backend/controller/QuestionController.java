@@ -1,22 +1,61 @@
 package com.javatestbank.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.config.TokenAuthFilter;
 import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.model.QuestionSummary;
 import com.javatestbank.backend.model.User;
-import com.javatestbank.backend.model.UserAnswer;
 import com.javatestbank.backend.repository.QuestionRepository;
 import com.javatestbank.backend.repository.UserAnswerRepository;
 import com.javatestbank.backend.repository.UserRepository;
-import com.javatestbank.backend.service.AIService;
+import com.javatestbank.backend.service.AIAnalysisCache;
+import com.javatestbank.backend.service.AnswerGrader;
+import com.javatestbank.backend.service.AnswerWriteBuffer;
+import com.javatestbank.backend.service.ExplanationService;
+import com.javatestbank.backend.service.ImportJobService;
+import com.javatestbank.backend.service.PasswordService;
+import com.javatestbank.backend.service.QuestionEnrichmentService;
+import com.javatestbank.backend.service.QuestionCache;
+import com.javatestbank.backend.service.QuestionDuplicateDetector;
+import com.javatestbank.backend.service.QuestionIdIndex;
+import com.javatestbank.backend.service.QuestionImportService;
+import com.javatestbank.backend.service.QuestionSearchService;
+import com.javatestbank.backend.service.QuestionStatsStore;
+import com.javatestbank.backend.service.TokenService;
+import com.javatestbank.backend.service.UserMasteryStore;
+import com.javatestbank.backend.service.UserProgressService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,23 +63,61 @@ import java.util.stream.Collectors;
 
 public class QuestionController {
 
+    private static final Logger log = LoggerFactory.getLogger(QuestionController.class);
+    // Writes error bodies for handlers whose declared body type is a stream
+    private static final ObjectMapper ERROR_WRITER = new ObjectMapper();
+
     private final QuestionRepository questionRepository;
     private final UserRepository userRepository;
     private final UserAnswerRepository userAnswerRepository;
-    private final AIService aiService;
+    private final AIAnalysisCache aiAnalysisCache;
+    private final ExplanationService explanationService;
+    private final QuestionEnrichmentService enrichmentService;
+    private final QuestionImportService importService;
+    private final ImportJobService importJobs;
+    private final QuestionCache questionCache;
+    private final AnswerGrader answerGrader;
+    private final AnswerWriteBuffer answerWriteBuffer;
+    private final QuestionIdIndex questionIdIndex;
+    private final QuestionStatsStore questionStatsStore;
+    private final QuestionSearchService questionSearchService;
+    private final QuestionDuplicateDetector duplicateDetector;
+    private final PasswordService passwordService;
+    private final TokenService tokenService;
+    private final UserMasteryStore masteryStore;
+    private final UserProgressService userProgressService;
     private final String adminUsername;
-    private final String adminPassword;
 
     public QuestionController(QuestionRepository questionRepository, UserRepository userRepository, 
-                              UserAnswerRepository userAnswerRepository, AIService aiService,
-                              @org.springframework.beans.factory.annotation.Value("${app.admin.username}") String adminUsername,
-                              @org.springframework.beans.factory.annotation.Value("${app.admin.password}") String adminPassword) {
+                              UserAnswerRepository userAnswerRepository, AIAnalysisCache aiAnalysisCache,
+                              ExplanationService explanationService, QuestionEnrichmentService enrichmentService,
+                              QuestionImportService importService, ImportJobService importJobs,
+                              QuestionCache questionCache, AnswerGrader answerGrader, AnswerWriteBuffer answerWriteBuffer,
+                              QuestionIdIndex questionIdIndex, QuestionStatsStore questionStatsStore,
+                              QuestionSearchService questionSearchService, QuestionDuplicateDetector duplicateDetector,
+                              PasswordService passwordService, TokenService tokenService, UserMasteryStore masteryStore,
+                              UserProgressService userProgressService,
+                              @Value("${app.admin.username}") String adminUsername) {
         this.questionRepository = questionRepository;
         this.userRepository = userRepository;
         this.userAnswerRepository = userAnswerRepository;
-        this.aiService = aiService;
+        this.aiAnalysisCache = aiAnalysisCache;
+        this.explanationService = explanationService;
+        this.enrichmentService = enrichmentService;
+        this.importService = importService;
+        this.importJobs = importJobs;
+        this.questionCache = questionCache;
+        this.answerGrader = answerGrader;
+        this.answerWriteBuffer = answerWriteBuffer;
+        this.questionIdIndex = questionIdIndex;
+        this.questionStatsStore = questionStatsStore;
+        this.questionSearchService = questionSearchService;
+        this.duplicateDetector = duplicateDetector;
+        this.passwordService = passwordService;
+        this.tokenService = tokenService;
+        this.masteryStore = masteryStore;
+        this.userProgressService = userProgressService;
         this.adminUsername = adminUsername;
-        this.adminPassword = adminPassword;
     }
 
     @GetMapping("/questions")
@@ -49,354 +126,430 @@ public class QuestionController {
             @RequestParam(defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        return questionRepository.findAll(pageable);
+        // Total comes from the in-memory id index instead of a COUNT(*) per page
+        List<Question> content = questionRepository.findAllBy(pageable).getContent();
+        return new PageImpl<>(content, pageable, questionIdIndex.size());
+    }
+
+    // Cursor-based listing for large banks: pass the returned nextCursor as "after" for the next page
+    @GetMapping("/questions/scroll")
+    public Map<String, Object> scrollQuestions(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        int limit = Math.max(1, Math.min(size, 100));
+        Pageable firstRows = PageRequest.of(0, limit);
+
+        List<?> items;
+        Long lastId = null;
+        if ("summary".equalsIgnoreCase(view)) {
+            List<QuestionSummary> rows = questionRepository.findSummariesAfter(after, firstRows);
+            if (!rows.isEmpty()) lastId = rows.get(rows.size() - 1).id();
+            items = rows;
+        } else {
+            List<Question> rows = questionRepository.findByIdGreaterThanOrderByIdAsc(after, firstRows);
+            if (!rows.isEmpty()) lastId = rows.get(rows.size() - 1).getId();
+            items = rows;
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", items);
+        body.put("nextCursor", items.size() == limit ? lastId : null);
+        if (includeTotal) body.put("total", questionIdIndex.size());
+        return body;
+    }
+
+    // Ranked full-text search over text, options and code; the last word matches as a prefix too
+    @GetMapping("/questions/search")
+    public List<QuestionSearchService.Result> searchQuestions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return questionSearchService.search(q, Math.max(1, Math.min(limit, 100)));
     }
 
     @GetMapping("/questions/quiz")
-    public List<Question> getQuizQuestions(
+    public List<QuestionSnapshot> getQuizQuestions(
             @RequestParam(defaultValue = "15") int count,
-            @RequestParam(required = false) List<Integer> chapters
+            @RequestParam(required = false) List<Integer> chapters,
+            @RequestParam(defaultValue = "random") String mode,
+            @RequestAttribute(value = TokenAuthFilter.PRINCIPAL, required = false) TokenService.Principal principal
     ) {
-        if (chapters != null && !chapters.isEmpty()) {
-            // Build Regex: ^(9|10|11)\.
-            String pattern = chapters.stream()
-                    .map(String::valueOf)
-                    .collect(Collectors.joining("|", "^(", ")\\."));
-            return questionRepository.findRandomQuestionsByRegex(pattern, count);
-        }
-        return questionRepository.findRandomQuestions(count);
+        // Adaptive mode needs a signed-in user; anyone else gets the uniform draw
+        boolean adaptive = "adaptive".equalsIgnoreCase(mode) && principal != null && principal.userId() != null;
+        long[] ids = adaptive
+                ? masteryStore.sample(principal.userId(), count, chapters)
+                : questionIdIndex.sample(count, chapters);
+        if (ids.length == 0) return List.of();
+
+        // Served from the question cache in sampled (random) order; only cold ids hit the database
+        List<Long> idList = Arrays.stream(ids).boxed().collect(Collectors.toList());
+        return questionCache.getAll(idList);
     }
 
     @PostMapping("/check-answer")
-    public ResponseEntity<?> checkAnswer(@RequestBody Map<String, Object> payload) {
-        Long questionId = Long.valueOf(payload.get("questionId").toString());
-        String username = (String) payload.get("username");
+    public ResponseEntity<?> checkAnswer(@RequestBody CheckAnswerRequest request,
+                                         @RequestAttribute(value = TokenAuthFilter.PRINCIPAL, required = false) TokenService.Principal principal) {
+        if (request.questionId == null) return ResponseEntity.badRequest().body(Map.of("error", "questionId is required"));
+        Long questionId = request.questionId;
+        // Without a pick the answer would be stored as option 0 and skew its stats
+        boolean noSelection = request.selectedIndices != null
+                ? request.selectedIndices.length == 0
+                : request.selectedOptionIndex == null;
+        if (noSelection) return ResponseEntity.badRequest().body(Map.of("error", "Select at least one option"));
 
-        Optional<Question> qOpt = questionRepository.findById(questionId);
-        if (qOpt.isEmpty()) return ResponseEntity.notFound().build();
+        QuestionSnapshot question = questionCache.get(questionId);
+        if (question == null) return ResponseEntity.notFound().build();
+
+        // Indices feed the stats counters, so anything outside the question's options is refused
+        int optionCount = question.getOptions() != null ? question.getOptions().size() : 0;
+        boolean outOfRange = request.selectedIndices != null
+                ? Arrays.stream(request.selectedIndices).anyMatch(i -> i < 0 || i >= optionCount)
+                : request.selectedOptionIndex != null && (request.selectedOptionIndex < 0 || request.selectedOptionIndex >= optionCount);
+        if (outOfRange) return ResponseEntity.badRequest().body(Map.of("error", "Selected option is out of range"));
 
-        Question question = qOpt.get();
         boolean isCorrect = false;
         
         Integer singleSelection = null;
         List<Integer> multiSelection = null;
 
-        // Determine if single or multi-select based on payload or question type
-        if (payload.containsKey("selectedIndices")) {
-            List<?> rawList = (List<?>) payload.get("selectedIndices");
-            multiSelection = rawList.stream().map(o -> Integer.parseInt(o.toString())).collect(Collectors.toList());
-            
-            // Check logic
-            List<Integer> correct = question.getCorrectIndices();
-            if (correct != null && !correct.isEmpty()) {
-                // Multi-select check: sets must be equal
-                isCorrect = multiSelection.size() == correct.size() && multiSelection.containsAll(correct);
-            } else {
-                // Fallback: if only 1 correct index but user sent list
-                if (multiSelection.size() == 1 && question.getCorrectIndex() != null) {
-                    isCorrect = multiSelection.get(0).equals(question.getCorrectIndex());
-                }
-            }
-        } else if (payload.containsKey("selectedOptionIndex")) {
-            singleSelection = Integer.parseInt(payload.get("selectedOptionIndex").toString());
-            // Check logic
-            List<Integer> correct = question.getCorrectIndices();
-            if (correct != null && !correct.isEmpty()) {
-                 if (correct.size() == 1) {
-                     // Allow single selection if there is exactly one correct answer
-                     isCorrect = correct.get(0).equals(singleSelection);
-                 } else {
-                     // Truly multi-select question, but user sent single answer -> Fail
-                     isCorrect = false;
-                 }
-            } else {
-                 isCorrect = question.getCorrectIndex() != null && question.getCorrectIndex().equals(singleSelection);
-            }
+        // selectedIndices (multi-select) takes precedence over selectedOptionIndex
+        if (request.selectedIndices != null) {
+            isCorrect = answerGrader.grade(question, request.selectedIndices);
+            // Stored as the set that was graded, so a repeated index is not counted twice in the stats
+            multiSelection = Arrays.stream(request.selectedIndices).distinct().boxed().collect(Collectors.toList());
+        } else if (request.selectedOptionIndex != null) {
+            singleSelection = request.selectedOptionIndex;
+            isCorrect = answerGrader.grade(question, singleSelection);
         }
         
-        // Generate explanation if missing
-        if (question.getExplanation() == null || question.getExplanation().isEmpty()) {
-            String correctAnswerText = "";
-            if (question.getCorrectIndices() != null && !question.getCorrectIndices().isEmpty()) {
-                correctAnswerText = question.getCorrectIndices().stream()
-                    .map(i -> question.getOptions().get(i))
-                    .collect(Collectors.joining(", "));
-            } else if (question.getCorrectIndex() != null) {
-                correctAnswerText = question.getOptions().get(question.getCorrectIndex());
-            }
-            String aiExplanation = aiService.generateExplanation(question.getText(), question.getCodeSnippet(), correctAnswerText);
-            question.setExplanation(aiExplanation);
-            questionRepository.save(question);
-        }
+        // Missing explanations are generated in the background; clients poll /questions/{id}/explanation
+        String explanationStatus = explanationService.ensure(question);
 
-        // Persist User Answer
-        User user = null;
-        if (username != null && !username.isEmpty()) {
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            if (userOpt.isPresent()) user = userOpt.get();
-        }
-        
-        UserAnswer ua = new UserAnswer();
-        if (user != null) {
-            Optional<UserAnswer> existing = userAnswerRepository.findByUserIdAndQuestionId(user.getId(), questionId);
-            if (existing.isPresent()) ua = existing.get();
-            ua.setUser(user);
-        }
-        
-        ua.setQuestion(question);
-        if (singleSelection != null) ua.setSelectedOptionIndex(singleSelection);
-        if (multiSelection != null) ua.setSelectedIndices(multiSelection);
-        ua.setCorrect(isCorrect);
-        userAnswerRepository.save(ua);
+        // Persist User Answer (buffered; see AnswerWriteBuffer). The user comes from the
+        // session token, never from the payload; without one the answer is anonymous.
+        Long userId = principal != null ? principal.userId() : null;
+        answerWriteBuffer.submit(userId, questionId, singleSelection, multiSelection, isCorrect);
+        if (userId != null) masteryStore.record(userId, questionId, question.getChapter(), isCorrect);
 
         return ResponseEntity.ok(Map.of(
             "correct", isCorrect,
             "correctIndex", question.getCorrectIndex(), // Legacy support
             "correctIndices", question.getCorrectIndices() != null ? question.getCorrectIndices() : List.of(),
-            "explanation", question.getExplanation(),
+            "explanation", ExplanationService.displayText(question, explanationStatus),
+            "explanationStatus", explanationStatus,
             "answerExplanations", question.getAnswerExplanations() != null ? question.getAnswerExplanations() : List.of(),
-            "stats", getQuestionStats(questionId)
+            "stats", questionStatsStore.snapshot(questionId)
         ));
     }
 
-    private Map<String, Object> getQuestionStats(Long questionId) {
-        long total = userAnswerRepository.countByQuestionId(questionId);
-        if (total == 0) return Map.of("total", 0);
-        
-        Map<Integer, Long> counts = new java.util.HashMap<>();
-        for (int i = 0; i < 4; i++) {
-            counts.put(i, userAnswerRepository.countByQuestionIdAndSelectedOptionIndex(questionId, i));
+    @GetMapping("/questions/{id}/explanation")
+    public ResponseEntity<?> getExplanation(@PathVariable Long id) {
+        if (explanationService.isPending(id)) {
+            return ResponseEntity.ok(Map.of("status", ExplanationService.STATUS_PENDING));
         }
-        
-        return Map.of(
-            "total", total,
-            "counts", counts
-        );
+
+        QuestionSnapshot question = questionCache.get(id);
+        if (question == null) return ResponseEntity.notFound().build();
+
+        // Nothing running (e.g. a previous attempt failed): start one, unless the AI circuit is open
+        String status = explanationService.ensure(question);
+        if (ExplanationService.STATUS_PENDING.equals(status)) return ResponseEntity.ok(Map.of("status", status));
+        return ResponseEntity.ok(Map.of("status", status, "explanation", ExplanationService.displayText(question, status)));
     }
 
+    // Same enrichment as imports: a question whose answer neither the admin nor the AI
+    // supplied is refused with 502 instead of being saved with a made-up answer
     @PostMapping("/admin/questions")
-    public Question createQuestion(@RequestBody Question question) {
+    public ResponseEntity<?> createQuestion(@RequestBody Question question) {
         if (question.getOptions() != null && !question.getOptions().isEmpty()) {
-            // Logic: IF manual answer AND manual explanation -> SKIP AI.
-            boolean isFullyManual = question.getCorrectIndex() != null && 
-                                    question.getExplanation() != null && 
-                                    !question.getExplanation().isEmpty();
-
-            if (!isFullyManual) {
-                Map<String, Object> analysis = aiService.analyzeQuestion(question.getText(), question.getCodeSnippet(), question.getOptions(), question.getCorrectIndex());
-                
-                // If user didn't specify index (null), rely on AI. If user did, AI just explains.
-                if (question.getCorrectIndex() == null && analysis.containsKey("correctIndex")) {
-                    question.setCorrectIndex((Integer) analysis.get("correctIndex"));
-                }
-                if (analysis.containsKey("explanation")) {
-                    question.setExplanation((String) analysis.get("explanation"));
-                }
+            QuestionEnrichmentService.Result result = enrichmentService.enrichAll(List.of(question)).get(0);
+            if (!result.success()) {
+                return ResponseEntity.status(502).body(Map.of("error", "AI analysis failed: " + result.error()));
             }
         }
-        return questionRepository.save(question);
+        Question saved = questionRepository.save(question);
+        questionCache.invalidate(saved.getId()); // A posted id updates an existing question
+        questionIdIndex.refresh();
+        questionSearchService.index(List.of(saved));
+        duplicateDetector.add(List.of(saved));
+        return ResponseEntity.ok(saved);
     }
 
+    // Bulk and import endpoints answer 202 with a job id; GET /admin/import-jobs/{id} has the report once done
     @PostMapping("/admin/questions/bulk")
-    public List<Question> createQuestionsBulk(@RequestBody List<Question> questions) {
-        for (Question q : questions) {
-            if (q.getOptions() != null && !q.getOptions().isEmpty()) {
-                // Logic: IF manual answer AND manual explanation -> SKIP AI.
-                boolean isFullyManual = q.getCorrectIndex() != null && 
-                                        q.getExplanation() != null && 
-                                        !q.getExplanation().isEmpty();
-
-                if (!isFullyManual) {
-                    Map<String, Object> analysis = aiService.analyzeQuestion(q.getText(), q.getCodeSnippet(), q.getOptions(), q.getCorrectIndex());
-                    if (q.getCorrectIndex() == null && analysis.containsKey("correctIndex")) {
-                        q.setCorrectIndex((Integer) analysis.get("correctIndex"));
-                    }
-                    if (analysis.containsKey("explanation")) {
-                        q.setExplanation((String) analysis.get("explanation"));
-                    }
-                }
+    public ResponseEntity<?> createQuestionsBulk(@RequestBody List<Question> questions,
+                                                 @RequestParam(required = false) String duplicates) {
+        return accepted(importJobs.submit("bulk", () -> screenEnrichAndSave(questions, duplicates, new ArrayList<>())));
+    }
+
+    @GetMapping("/admin/import-jobs/{id}")
+    public ResponseEntity<?> getImportJob(@PathVariable String id) {
+        return importJobs.status(id).<ResponseEntity<?>>map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<?> accepted(String jobId) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/import-jobs/" + jobId))
+                .body(Map.of("jobId", jobId, "status", ImportJobService.STATUS_QUEUED));
+    }
+
+    // Drops near-duplicates before any AI call, enriches the rest and saves what succeeded.
+    // bySourceIndex holds null for records that already failed; report collects every record's outcome.
+    private ResponseEntity<?> screenEnrichAndSave(List<Question> bySourceIndex, String duplicates,
+                                                  List<Map<String, Object>> report) {
+        Map<Integer, QuestionDuplicateDetector.Verdict> verdicts = new HashMap<>();
+        int failed = report.size();
+        int skipped = 0;
+        for (QuestionDuplicateDetector.Verdict v : duplicateDetector.screen(bySourceIndex, duplicateDetector.modeOf(duplicates))) {
+            verdicts.put(v.position(), v);
+            if (v.action() == QuestionDuplicateDetector.Action.SKIPPED) {
+                report.add(v.toReport());
+                skipped++;
             }
         }
-        return questionRepository.saveAll(questions);
+
+        List<Question> toEnrich = new ArrayList<>();
+        List<Integer> sourceIndex = new ArrayList<>();
+        for (int i = 0; i < bySourceIndex.size(); i++) {
+            QuestionDuplicateDetector.Verdict v = verdicts.get(i);
+            if (bySourceIndex.get(i) == null || (v != null && v.action() == QuestionDuplicateDetector.Action.SKIPPED)) continue;
+            toEnrich.add(bySourceIndex.get(i));
+            sourceIndex.add(i);
+        }
+
+        List<Question> toSave = new ArrayList<>();
+        for (QuestionEnrichmentService.Result r : enrichmentService.enrichAll(toEnrich)) {
+            int index = sourceIndex.get(r.index());
+            if (r.success()) {
+                toSave.add(toEnrich.get(r.index()));
+                QuestionDuplicateDetector.Verdict v = verdicts.get(index);
+                report.add(v != null ? v.toReport() : Map.of("index", index, "status", "imported"));
+            } else {
+                failed++;
+                report.add(Map.of("index", index, "status", "failed", "error", r.error()));
+            }
+        }
+        report.sort(Comparator.comparingInt(m -> (Integer) m.get("index")));
+
+        if (toSave.isEmpty()) {
+            importService.recordOutcome(0, failed, skipped);
+            String message = skipped > 0 && failed == 0
+                    ? "No new questions: all " + skipped + " were duplicates" : "No valid questions found to import.";
+            return (failed == 0 ? ResponseEntity.ok() : ResponseEntity.badRequest()).body(Map.of(
+                "message", message, "imported", 0, "failed", failed, "duplicates", skipped, "results", report));
+        }
+
+        try {
+            List<Question> saved = questionRepository.saveAll(toSave);
+            saved.forEach(q -> questionCache.invalidate(q.getId()));
+            questionIdIndex.refresh();
+            questionSearchService.index(saved);
+            duplicateDetector.add(saved);
+        } catch (Exception e) {
+            log.error("Saving {} imported questions failed", toSave.size(), e);
+            importService.recordOutcome(0, failed + toSave.size(), skipped);
+            return ResponseEntity.status(500).body(Map.of("message", "Database Save Failed: " + e.getMessage()));
+        }
+        importService.recordOutcome(toSave.size(), failed, skipped);
+        String message = "Imported " + toSave.size() + " questions successfully"
+                + (failed > 0 ? " (" + failed + " failed)" : "")
+                + (skipped > 0 ? " (" + skipped + " duplicates skipped)" : "");
+        return ResponseEntity.ok(Map.of("message", message, "imported", toSave.size(), "failed", failed,
+                "duplicates", skipped, "results", report));
     }
     
+    // Hashing runs on PasswordService's pool; the request thread is released while it waits
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> credentials) {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
-        if (adminUsername.equals(username) && adminPassword.equals(password)) {
-            return ResponseEntity.ok(Map.of("id", "admin", "name", "Muhammed Alhomiedat", "isAdmin", true));
-        }
-        
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            if (user.getPassword() != null && user.getPassword().equals(password)) {
-                return ResponseEntity.ok(Map.of("id", user.getId(), "name", user.getUsername(), "isAdmin", false));
+        CompletableFuture<Boolean> isAdmin = adminUsername.equals(username)
+                ? passwordService.verifyAdmin(password) : CompletableFuture.completedFuture(false);
+        CompletableFuture<ResponseEntity<?>> response = isAdmin.thenCompose(admin -> {
+            if (admin) {
+                String token = tokenService.issue(new TokenService.Principal(null, adminUsername, true));
+                return CompletableFuture.completedFuture(ResponseEntity.ok(
+                        Map.of("id", "admin", "name", "Muhammed Alhomiedat", "isAdmin", true, "token", token)));
             }
-        }
-        return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+            Optional<User> userOpt = userRepository.findByUsername(username);
+            if (userOpt.isEmpty()) return CompletableFuture.completedFuture(invalidCredentials());
+            User user = userOpt.get();
+            return passwordService.verify(user, password).thenApply(ok -> ok ? userSession(user) : invalidCredentials());
+        });
+        return response.exceptionally(QuestionController::busyOrRethrow);
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody Map<String, String> credentials) {
         String username = credentials.get("username");
         String password = credentials.get("password");
 
         if (userRepository.findByUsername(username).isPresent()) {
-            return ResponseEntity.status(409).body(Map.of("error", "Username already exists"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(409).body(Map.of("error", "Username already exists")));
         }
 
-        User newUser = userRepository.save(new User(username, password));
-        return ResponseEntity.ok(Map.of("id", newUser.getId(), "name", newUser.getUsername(), "isAdmin", false));
+        CompletableFuture<ResponseEntity<?>> response = passwordService.hash(password).thenApply(hash -> {
+            return userSession(userRepository.save(new User(username, hash)));
+        });
+        return response.exceptionally(QuestionController::busyOrRethrow);
+    }
+
+    private ResponseEntity<?> userSession(User user) {
+        String token = tokenService.issue(new TokenService.Principal(user.getId(), user.getUsername(), false));
+        return ResponseEntity.ok(Map.of("id", user.getId(), "name", user.getUsername(), "isAdmin", false, "token", token));
+    }
+
+    private static ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+    }
+
+    // A full hashing queue means a login burst: tell the client to retry instead of queueing without bound
+    private static ResponseEntity<?> busyOrRethrow(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(503).header("Retry-After", "1").body(Map.of("error", "Server busy, please retry"));
+        }
+        if (cause instanceof RuntimeException re) throw re;
+        throw new CompletionException(cause);
     }
 
+    // The body type must be declared: Spring only streams ResponseEntity<StreamingResponseBody>
     @GetMapping("/user/{username}/progress")
-    public ResponseEntity<?> getUserProgress(@PathVariable String username) {
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) return ResponseEntity.ok(Map.of());
+    public ResponseEntity<StreamingResponseBody> getUserProgress(
+            @PathVariable String username,
+            @RequestAttribute(value = TokenAuthFilter.PRINCIPAL, required = false) TokenService.Principal principal
+    ) {
+        ResponseEntity<?> denied = denyUnlessOwner(username, principal);
+        if (denied != null) {
+            // The declared stream type cannot carry the Map, so the same {"error": ...} body is written out
+            Object error = denied.getBody();
+            return ResponseEntity.status(denied.getStatusCode())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> ERROR_WRITER.writeValue(out, error));
+        }
 
-        List<UserAnswer> answers = userAnswerRepository.findByUserId(userOpt.get().getId());
-        
-        // Map to format convenient for frontend
-        Map<Long, Object> progress = answers.stream().collect(Collectors.toMap(
-            ua -> ua.getQuestion().getId(),
-            ua -> Map.of(
-                "selectedIndex", ua.getSelectedOptionIndex(),
-                "selectedIndices", ua.getSelectedIndices() != null ? ua.getSelectedIndices() : List.of(),
-                "feedback", Map.of(
-                    "correct", ua.isCorrect(),
-                    "correctIndex", ua.getQuestion().getCorrectIndex(),
-                    "correctIndices", ua.getQuestion().getCorrectIndices() != null ? ua.getQuestion().getCorrectIndices() : List.of(),
-                    "explanation", ua.getQuestion().getExplanation()
-                )
-            )
-        ));
-        
-        return ResponseEntity.ok(progress);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userProgressService.progressFor(principal.userId()));
+    }
+
+    // Compact snapshot; with "since" (a previous response's version) only answers changed after it
+    @GetMapping("/user/{username}/progress/compact")
+    public ResponseEntity<?> getCompactUserProgress(
+            @PathVariable String username,
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            @RequestAttribute(value = TokenAuthFilter.PRINCIPAL, required = false) TokenService.Principal principal
+    ) {
+        ResponseEntity<?> denied = denyUnlessOwner(username, principal);
+        if (denied != null) return denied;
+        Long userId = principal.userId();
+
+        String etag = userProgressService.etagFor(userId);
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(304).eTag(etag).build();
+        }
+
+        Instant sinceInstant = since != null ? Instant.ofEpochMilli(since) : Instant.EPOCH;
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(userProgressService.compactProgressFor(userId, sinceInstant));
+    }
+
+    // Progress is private: the token must belong to the user named in the path
+    private static ResponseEntity<?> denyUnlessOwner(String username, TokenService.Principal principal) {
+        if (principal == null) return ResponseEntity.status(401).body(Map.of("error", "Authentication required"));
+        if (principal.userId() == null || !principal.username().equals(username)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not your progress"));
+        }
+        return null;
+    }
+
+    @GetMapping("/admin/ai/cache-stats")
+    public Map<String, Object> getAiCacheStats() {
+        return aiAnalysisCache.stats();
+    }
+
+    @GetMapping("/admin/question-cache/stats")
+    public Map<String, Object> getQuestionCacheStats() {
+        return questionCache.stats();
     }
 
     @DeleteMapping("/admin/questions/{id}")
     public ResponseEntity<?> deleteQuestion(@PathVariable Long id) {
+        answerWriteBuffer.discardQuestion(id);
         userAnswerRepository.deleteByQuestionId(id);
         questionRepository.deleteById(id);
+        questionCache.invalidate(id);
+        questionIdIndex.refresh();
+        questionSearchService.remove(id);
+        duplicateDetector.remove(id);
+        questionStatsStore.evict(id);
         return ResponseEntity.ok(Map.of("message", "Question deleted successfully"));
     }
     @PostMapping("/admin/questions/import")
-    public ResponseEntity<?> importQuestions(@RequestBody List<QuestionImportDTO> importDtos) {
-        List<Question> questions = importDtos.stream().map(dto -> {
+    public ResponseEntity<?> importQuestions(@RequestBody List<QuestionImportService.QuestionImportDTO> importDtos,
+                                             @RequestParam(required = false) String duplicates) {
+        // Map first; records that cannot even be mapped are reported and skipped.
+        // Positions stay aligned with the uploaded array so the report refers to it.
+        List<Question> bySourceIndex = new ArrayList<>(importDtos.size());
+        List<Map<String, Object>> report = new ArrayList<>();
+        for (int i = 0; i < importDtos.size(); i++) {
             try {
-                Question q = new Question();
-                String text = dto.question;
-                if (text != null && text.length() > 995) text = text.substring(0, 995) + "...";
-                q.setText(text);
-
-                String code = dto.codeSnippet;
-                if (code != null && code.length() > 4995) code = code.substring(0, 4995) + "\n... (truncated)";
-                q.setCodeSnippet(code);
-                
-                if (q.getText() == null || q.getText().trim().isEmpty()) return null;
-
-                if (dto.answers != null) {
-                    List<String> options = dto.answers.stream().map(a -> a.answer).collect(Collectors.toList());
-                    q.setOptions(options);
-                    
-                    List<Integer> indices = new java.util.ArrayList<>();
-                    List<String> explanations = new java.util.ArrayList<>();
-                    
-                    for (int i = 0; i < dto.answers.size(); i++) {
-                        AnswerImportDTO ans = dto.answers.get(i);
-                        String rawExpl = ans.explanation != null ? ans.explanation : "";
-                        if (rawExpl.length() > 995) rawExpl = rawExpl.substring(0, 995) + "...";
-                        explanations.add(rawExpl);
-                        
-                        if (ans.is_right) {
-                            q.setCorrectIndex(i); 
-                            indices.add(i);
-                            if (q.getExplanation() == null || q.getExplanation().isEmpty()) {
-                                 if (ans.explanation != null && !ans.explanation.isEmpty()) {
-                                    String combinedExpl = ans.explanation;
-                                    if (combinedExpl.length() > 1995) combinedExpl = combinedExpl.substring(0, 1995) + "...";
-                                    q.setExplanation(combinedExpl);
-                                }
-                            }
-                        }
-                    }
-                    q.setCorrectIndices(indices);
-                    q.setAnswerExplanations(explanations);
-                }
-                
-                // Auto-generate logic if missing
-                if (q.getOptions() != null && !q.getOptions().isEmpty()) {
-                    boolean isFullyManual = q.getCorrectIndex() != null && 
-                                            q.getExplanation() != null && 
-                                            !q.getExplanation().isEmpty();
-
-                    if (!isFullyManual) {
-                        Map<String, Object> analysis = aiService.analyzeQuestion(q.getText(), q.getCodeSnippet(), q.getOptions(), q.getCorrectIndex());
-                        if (q.getCorrectIndex() == null && analysis.containsKey("correctIndex")) {
-                            q.setCorrectIndex((Integer) analysis.get("correctIndex"));
-                        }
-                        if (q.getExplanation() == null && analysis.containsKey("explanation")) {
-                            String aiExpl = (String) analysis.get("explanation");
-                            if (aiExpl.length() > 1995) aiExpl = aiExpl.substring(0, 1995) + "...";
-                            q.setExplanation(aiExpl);
-                        }
-                    }
-                }
-                
-                // Final validation before returning
-                if (q.getCorrectIndex() == null) {
-                    // Start fallback: try to use correctIndices
-                    if (q.getCorrectIndices() != null && !q.getCorrectIndices().isEmpty()) {
-                        q.setCorrectIndex(q.getCorrectIndices().get(0));
-                    } else {
-                        // Desperate fallback: default to 0 to prevent DB crash, but improved data is better
-                        // Ideally we skip, but let's default to 0 and mark explanation
-                        q.setCorrectIndex(0);
-                        if (q.getExplanation() == null) q.setExplanation("Auto-defaulted to option A due to missing correct answer.");
-                    }
-                }
-                
-                // Safe truncate main explanation one last time in case it came from elsewhere
-                if (q.getExplanation() != null && q.getExplanation().length() > 1995) {
-                    q.setExplanation(q.getExplanation().substring(0, 1995) + "...");
-                }
-                
-                return q;
+                bySourceIndex.add(importService.toQuestion(importDtos.get(i)));
             } catch (Exception e) {
                 // Log and skip bad apples
-                System.err.println("Error processing question import: " + e.getMessage());
-                return null;
+                log.warn("Skipping import record {}: {}", i, e.getMessage());
+                bySourceIndex.add(null);
+                report.add(Map.of("index", i, "status", "failed", "error", String.valueOf(e.getMessage())));
             }
-        })
-        .filter(java.util.Objects::nonNull)
-        .collect(Collectors.toList());
-        
-        if (questions.isEmpty()) {
-             return ResponseEntity.badRequest().body(Map.of("message", "No valid questions found to import."));
         }
-        
+        return accepted(importJobs.submit("import", () -> screenEnrichAndSave(bySourceIndex, duplicates, report)));
+    }
+
+    // Streams a JSON array or NDJSON body and commits in batches, so large banks import in constant memory.
+    // The body is spooled to a temporary file first, so the job can outlive the request.
+    @PostMapping("/admin/questions/import/stream")
+    public ResponseEntity<?> importQuestionsStream(InputStream body,
+                                                   @RequestParam(required = false) String duplicates) throws IOException {
+        QuestionDuplicateDetector.Mode mode = duplicateDetector.modeOf(duplicates);
+        Path spool = Files.createTempFile("question-import-", ".json");
         try {
-            questionRepository.saveAll(questions);
-            return ResponseEntity.ok(Map.of("message", "Imported " + questions.size() + " questions successfully"));
-        } catch (Exception e) {
-             return ResponseEntity.status(500).body(Map.of("message", "Database Save Failed: " + e.getMessage()));
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+            return accepted(importJobs.submit("stream", () -> importSpooled(spool, mode)));
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
         }
     }
 
-    // DTOs for Import
-    static class QuestionImportDTO {
-        public String question;
-        public String codeSnippet;
-        public List<AnswerImportDTO> answers;
+    private ResponseEntity<?> importSpooled(Path spool, QuestionDuplicateDetector.Mode mode) {
+        try (InputStream in = Files.newInputStream(spool)) {
+            QuestionImportService.StreamReport report = importService.importStream(in, mode);
+            if (report.imported() > 0) questionIdIndex.refresh();
+
+            if (report.aborted() != null && report.imported() == 0) {
+                return ResponseEntity.badRequest().body(report);
+            }
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool {}: {}", spool, e.getMessage());
+            }
+        }
     }
 
-    static class AnswerImportDTO {
-        public String answer;
-        @JsonProperty("is_right")
-        public boolean is_right;
-        public String explanation;
+    static class CheckAnswerRequest {
+        public Long questionId;
+        public Integer selectedOptionIndex;
+        public int[] selectedIndices;
     }
 }
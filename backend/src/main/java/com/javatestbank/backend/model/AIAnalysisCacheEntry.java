@@ -0,0 +1,44 @@
+package com.javatestbank.backend.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Table(name = "ai_analysis_cache", indexes = @Index(name = "idx_ai_analysis_cache_created_at", columnList = "createdAt"))
+public class AIAnalysisCacheEntry {
+
+    // SHA-256 (hex) of model + prompt, see AIAnalysisCache.keyOf
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false)
+    private Integer correctIndex;
+
+    @Column(length = 5000)
+    private String explanation;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public AIAnalysisCacheEntry() {}
+
+    public AIAnalysisCacheEntry(String cacheKey, Integer correctIndex, String explanation, Instant createdAt) {
+        this.cacheKey = cacheKey;
+        this.correctIndex = correctIndex;
+        this.explanation = explanation;
+        this.createdAt = createdAt;
+    }
+
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public Integer getCorrectIndex() { return correctIndex; }
+    public void setCorrectIndex(Integer correctIndex) { this.correctIndex = correctIndex; }
+
+    public String getExplanation() { return explanation; }
+    public void setExplanation(String explanation) { this.explanation = explanation; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
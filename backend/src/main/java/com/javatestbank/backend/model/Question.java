@@ -2,19 +2,33 @@ package com.javatestbank.backend.model;
 
 import jakarta.persistence.*;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = @Index(name = "idx_questions_chapter", columnList = "chapter"))
 public class Question {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Stored for texts without a chapter prefix, so the backfill can tell them from rows it has not seen;
+    // getChapter() and the repository projections read it back as null
+    public static final int NO_CHAPTER = -1;
+
+    // Question text is conventionally prefixed with its chapter, e.g. "9.3 Which of..."
+    private static final Pattern CHAPTER_PREFIX = Pattern.compile("^\\s*(\\d+)\\.");
+
+    // Sequence ids (pooled, 50 per round trip) let Hibernate batch inserts; IDENTITY forces one INSERT per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questions_seq")
+    @SequenceGenerator(name = "questions_seq", sequenceName = "questions_seq", allocationSize = Question.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 1000)
     private String text;
 
     @ElementCollection
+    @org.hibernate.annotations.BatchSize(size = 50)
     @CollectionTable(name = "question_options", joinColumns = @JoinColumn(name = "question_id"))
     @Column(name = "option_text")
     private List<String> options;
@@ -29,15 +43,20 @@ public class Question {
     private String codeSnippet;
 
     @ElementCollection
+    @org.hibernate.annotations.BatchSize(size = 50)
     @CollectionTable(name = "question_correct_indices", joinColumns = @JoinColumn(name = "question_id"))
     @Column(name = "correct_index")
     private List<Integer> correctIndices;
 
     @ElementCollection
+    @org.hibernate.annotations.BatchSize(size = 50)
     @CollectionTable(name = "question_answer_explanations", joinColumns = @JoinColumn(name = "question_id"))
     @Column(name = "explanation_text", length = 3000)
     private List<String> answerExplanations;
 
+    // Parsed from the text on save so chapter filters never need to scan text
+    private Integer chapter;
+
     public Question() {}
 
     public Question(String text, List<String> options, Integer correctIndex, String explanation) {
@@ -55,6 +74,24 @@ public class Question {
         this.codeSnippet = codeSnippet;
     }
 
+    @PrePersist
+    @PreUpdate
+    void deriveChapter() {
+        Integer parsed = parseChapter(text);
+        this.chapter = parsed != null ? parsed : NO_CHAPTER;
+    }
+
+    public static Integer parseChapter(String text) {
+        if (text == null) return null;
+        Matcher m = CHAPTER_PREFIX.matcher(text);
+        if (!m.find()) return null;
+        try {
+            return Integer.valueOf(m.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -79,4 +116,7 @@ public class Question {
 
     public List<String> getAnswerExplanations() { return answerExplanations; }
     public void setAnswerExplanations(List<String> answerExplanations) { this.answerExplanations = answerExplanations; }
+
+    public Integer getChapter() { return chapter == null || chapter == NO_CHAPTER ? null : chapter; }
+    public void setChapter(Integer chapter) { this.chapter = chapter; }
 }
@@ -0,0 +1,76 @@
+package com.javatestbank.backend.model;
+
+import java.util.List;
+
+/**
+ * Immutable, fully materialized copy of a {@link Question}, safe to share across
+ * requests from the question cache. Getter names mirror the entity so it serializes
+ * to the same JSON.
+ */
+public final class QuestionSnapshot {
+
+    private final Long id;
+    private final String text;
+    private final List<String> options;
+    private final Integer correctIndex;
+    private final String explanation;
+    private final String codeSnippet;
+    private final List<Integer> correctIndices;
+    private final List<String> answerExplanations;
+    private final Integer chapter;
+
+    // Correct option set as a bitmask (bit i = option i), computed once for grading
+    private final long correctMask;
+
+    private QuestionSnapshot(Question q) {
+        this.id = q.getId();
+        this.text = q.getText();
+        this.options = copyOf(q.getOptions());
+        this.correctIndex = q.getCorrectIndex();
+        this.explanation = q.getExplanation();
+        this.codeSnippet = q.getCodeSnippet();
+        this.correctIndices = copyOf(q.getCorrectIndices());
+        this.answerExplanations = copyOf(q.getAnswerExplanations());
+        this.chapter = q.getChapter();
+        this.correctMask = computeCorrectMask(this.correctIndices, this.correctIndex);
+    }
+
+    // correctIndices wins when present (multi-answer imports); legacy rows only have correctIndex.
+    // An index outside 0..63 makes the mask 0, which grades every answer as wrong.
+    private static long computeCorrectMask(List<Integer> correctIndices, Integer correctIndex) {
+        if (!correctIndices.isEmpty()) {
+            long mask = 0;
+            for (Integer i : correctIndices) {
+                if (i == null || i < 0 || i >= Long.SIZE) return 0;
+                mask |= 1L << i;
+            }
+            return mask;
+        }
+        if (correctIndex == null || correctIndex < 0 || correctIndex >= Long.SIZE) return 0;
+        return 1L << correctIndex;
+    }
+
+    /** Copies the entity, loading its element collections; call inside a session. */
+    public static QuestionSnapshot of(Question q) {
+        return new QuestionSnapshot(q);
+    }
+
+    // List.copyOf rejects nulls, and legacy rows can hold null options/explanations
+    private static <T> List<T> copyOf(List<T> list) {
+        if (list == null) return List.of();
+        return java.util.Collections.unmodifiableList(new java.util.ArrayList<>(list));
+    }
+
+    public Long getId() { return id; }
+    public String getText() { return text; }
+    public List<String> getOptions() { return options; }
+    public Integer getCorrectIndex() { return correctIndex; }
+    public String getExplanation() { return explanation; }
+    public String getCodeSnippet() { return codeSnippet; }
+    public List<Integer> getCorrectIndices() { return correctIndices; }
+    public List<String> getAnswerExplanations() { return answerExplanations; }
+    public Integer getChapter() { return chapter; }
+
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    public long getCorrectMask() { return correctMask; }
+}
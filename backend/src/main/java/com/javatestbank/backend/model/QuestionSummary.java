@@ -0,0 +1,9 @@
+package com.javatestbank.backend.model;
+
+/**
+ * Lightweight list row for admin browsing: no collections, no code snippet,
+ * and only the first {@link #PREVIEW_LENGTH} characters of the text.
+ */
+public record QuestionSummary(Long id, String preview, Integer optionCount, Integer chapter) {
+    public static final int PREVIEW_LENGTH = 160;
+}
@@ -3,7 +3,8 @@ package com.javatestbank.backend.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "user_answers")
+// One row per (user, question); answers are upserted against this index (see UserAnswerUpsertRepository)
+@Table(name = "user_answers", indexes = @Index(name = "uk_user_answers_user_question", columnList = "user_id, question_id", unique = true))
 public class UserAnswer {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +27,10 @@ public class UserAnswer {
 
     private boolean isCorrect;
 
+    // Bumped on every save; progress delta sync returns answers changed after a client's version
+    @Column(name = "updated_at")
+    private java.time.Instant updatedAt;
+
     public UserAnswer() {}
 
     public UserAnswer(User user, Question question, int selectedOptionIndex, boolean isCorrect) {
@@ -35,6 +40,12 @@ public class UserAnswer {
         this.isCorrect = isCorrect;
     }
 
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = java.time.Instant.now();
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -52,4 +63,7 @@ public class UserAnswer {
 
     public boolean isCorrect() { return isCorrect; }
     public void setCorrect(boolean correct) { isCorrect = correct; }
+
+    public java.time.Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(java.time.Instant updatedAt) { this.updatedAt = updatedAt; }
 }
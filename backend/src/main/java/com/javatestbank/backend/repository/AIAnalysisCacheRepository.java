@@ -0,0 +1,15 @@
+package com.javatestbank.backend.repository;
+
+import com.javatestbank.backend.model.AIAnalysisCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AIAnalysisCacheRepository extends JpaRepository<AIAnalysisCacheEntry, String> {
+
+    // One bulk DELETE over the created_at index, instead of loading the expired rows
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Query("DELETE FROM AIAnalysisCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@org.springframework.data.repository.query.Param("cutoff") java.time.Instant cutoff);
+}
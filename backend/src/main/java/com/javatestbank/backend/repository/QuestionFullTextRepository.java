@@ -0,0 +1,68 @@
+package com.javatestbank.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PostgreSQL full-text search over questions. A {@code search_vector} tsvector column,
+ * maintained by the application because it spans the {@code question_options} table,
+ * combines text (weight A), options (B) and code snippet (C) behind a GIN index.
+ * The column is not mapped on the entity; schema update leaves it alone.
+ */
+@Repository
+public class QuestionFullTextRepository {
+
+    /** A matching question id and its {@code ts_rank}. */
+    public record Hit(long id, double rank) {}
+
+    private static final String VECTOR =
+            "setweight(to_tsvector('english', coalesce(q.text, '')), 'A') || " +
+            "setweight(to_tsvector('english', coalesce((SELECT string_agg(o.option_text, ' ') FROM question_options o WHERE o.question_id = q.id), '')), 'B') || " +
+            "setweight(to_tsvector('simple', coalesce(q.code_snippet, '')), 'C')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean supported;
+
+    public QuestionFullTextRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isSupported() {
+        Boolean s = supported;
+        if (s == null) {
+            String product = jdbcTemplate.execute((java.sql.Connection c) -> c.getMetaData().getDatabaseProductName());
+            supported = s = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return s;
+    }
+
+    public void ensureSchema() {
+        jdbcTemplate.execute("ALTER TABLE questions ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_questions_search ON questions USING GIN (search_vector)");
+    }
+
+    /** Computes vectors for rows that have none yet (legacy rows, or writes that bypassed {@link #refresh}). */
+    public int backfill() {
+        return jdbcTemplate.update("UPDATE questions q SET search_vector = " + VECTOR + " WHERE q.search_vector IS NULL");
+    }
+
+    public void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update("UPDATE questions q SET search_vector = " + VECTOR + " WHERE q.id IN (" + placeholders + ")", ids.toArray());
+    }
+
+    /** {@code tsQuery} uses to_tsquery syntax, e.g. {@code "string:* & equal:*"}. */
+    public List<Hit> search(String tsQuery, int limit) {
+        return jdbcTemplate.query(
+                "SELECT q.id, ts_rank(q.search_vector, query) AS rank " +
+                "FROM questions q, to_tsquery('english', ?) query " +
+                "WHERE q.search_vector @@ query ORDER BY rank DESC, q.id LIMIT ?",
+                (rs, n) -> new Hit(rs.getLong("id"), rs.getDouble("rank")),
+                tsQuery, limit);
+    }
+}
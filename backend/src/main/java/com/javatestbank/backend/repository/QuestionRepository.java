@@ -1,14 +1,64 @@
 package com.javatestbank.backend.repository;
 
 import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
-    @org.springframework.data.jpa.repository.Query(value = "SELECT * FROM questions ORDER BY RANDOM() LIMIT :limit", nativeQuery = true)
-    java.util.List<Question> findRandomQuestions(@org.springframework.data.repository.query.Param("limit") int limit);
+    // NULLIF maps the NO_CHAPTER sentinel back to null for callers
+    @Query("SELECT q.id, NULLIF(q.chapter, " + Question.NO_CHAPTER + ") FROM Question q")
+    List<Object[]> findAllIdsAndChapters();
+
+    // Served by idx_questions_chapter
+    @Query("SELECT q.id FROM Question q WHERE q.chapter IN :chapters")
+    List<Long> findIdsByChapterIn(@Param("chapters") Collection<Integer> chapters);
+
+    // Duplicate-index rebuild: just the fields a signature is computed from
+    @Query("SELECT q.id, q.text, q.codeSnippet FROM Question q")
+    List<Object[]> findSignatureFields();
+
+    @Query("SELECT q.id, o FROM Question q JOIN q.options o")
+    List<Object[]> findAllOptions();
+
+    // Rows saved before the chapter column existed
+    @Query("SELECT q.id, q.text FROM Question q WHERE q.chapter IS NULL")
+    List<Object[]> findIdsAndTextsWithoutChapter();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Question q SET q.chapter = :chapter WHERE q.id IN :ids")
+    int updateChapter(@Param("ids") Collection<Long> ids, @Param("chapter") Integer chapter);
+
+    // Only touches the explanation, so a concurrent admin edit of other fields is not overwritten
+    @Modifying
+    @Transactional
+    @Query("UPDATE Question q SET q.explanation = :explanation WHERE q.id = :id")
+    int updateExplanation(@Param("id") Long id, @Param("explanation") String explanation);
+
+    // Keyset (seek) pagination: "id > cursor ORDER BY id" stays index-only however deep the page
+    List<Question> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
+    @Query("SELECT new com.javatestbank.backend.model.QuestionSummary(q.id, SUBSTRING(q.text, 1, " +
+            QuestionSummary.PREVIEW_LENGTH + "), SIZE(q.options), NULLIF(q.chapter, " + Question.NO_CHAPTER + ")) " +
+            "FROM Question q WHERE q.id > :after ORDER BY q.id")
+    List<QuestionSummary> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT new com.javatestbank.backend.model.QuestionSummary(q.id, SUBSTRING(q.text, 1, " +
+            QuestionSummary.PREVIEW_LENGTH + "), SIZE(q.options), NULLIF(q.chapter, " + Question.NO_CHAPTER + ")) " +
+            "FROM Question q WHERE q.id IN :ids")
+    List<QuestionSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 
-    @org.springframework.data.jpa.repository.Query(value = "SELECT * FROM questions WHERE text ~ :regex ORDER BY RANDOM() LIMIT :limit", nativeQuery = true)
-    java.util.List<Question> findRandomQuestionsByRegex(@org.springframework.data.repository.query.Param("regex") String regex, @org.springframework.data.repository.query.Param("limit") int limit);
+    // Slice: page content without the COUNT(*) a Page query adds
+    Slice<Question> findAllBy(Pageable pageable);
 }
@@ -1,19 +1,62 @@
 package com.javatestbank.backend.repository;
 
+import com.javatestbank.backend.model.Question;
 import com.javatestbank.backend.model.UserAnswer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
     List<UserAnswer> findByUserId(Long userId);
-    Optional<UserAnswer> findByUserIdAndQuestionId(Long userId, Long questionId);
-    long countByQuestionId(Long questionId);
-    long countByQuestionIdAndSelectedOptionIndex(Long questionId, int selectedOptionIndex);
+    List<UserAnswer> findByUserIdInAndQuestionIdIn(Collection<Long> userIds, Collection<Long> questionIds);
+
+    // (question_id, option, count) per picked option, plus (question_id, -1, answers) totals.
+    // Multi-select answers contribute one row per selected index.
+    @Query(value =
+            "SELECT ua.question_id, COALESCE(uai.selected_index, ua.selected_option_index), COUNT(*) " +
+            "FROM user_answers ua LEFT JOIN user_answer_indices uai ON uai.user_answer_id = ua.id " +
+            "GROUP BY ua.question_id, COALESCE(uai.selected_index, ua.selected_option_index) " +
+            "UNION ALL " +
+            "SELECT question_id, -1, COUNT(*) FROM user_answers GROUP BY question_id", nativeQuery = true)
+    List<Object[]> aggregateOptionCounts();
     
-    @org.springframework.transaction.annotation.Transactional
+    // Progress read model: scalar rows only, so nothing is lazily loaded per answer.
+    // "since" limits results to answers saved after a client's last sync (Instant.EPOCH for all).
+    @Query("SELECT ua.id, q.id, ua.selectedOptionIndex, ua.isCorrect, q.correctIndex, q.explanation, ua.updatedAt " +
+            "FROM UserAnswer ua JOIN ua.question q WHERE ua.user.id = :userId AND ua.updatedAt > :since ORDER BY ua.id")
+    List<Object[]> findProgressRows(@Param("userId") Long userId,
+                                    @Param("since") Instant since);
+
+    @Query("SELECT ua.id, s FROM UserAnswer ua JOIN ua.selectedIndices s WHERE ua.user.id = :userId AND ua.updatedAt > :since")
+    List<Object[]> findSelectedIndicesForUser(@Param("userId") Long userId,
+                                              @Param("since") Instant since);
+
+    @Query("SELECT DISTINCT q.id, c FROM UserAnswer ua JOIN ua.question q JOIN q.correctIndices c WHERE ua.user.id = :userId AND ua.updatedAt > :since")
+    List<Object[]> findCorrectIndicesForUser(@Param("userId") Long userId,
+                                             @Param("since") Instant since);
+
+    // Adaptive quiz state: one scalar row per answered question
+    @Query("SELECT q.id, NULLIF(q.chapter, " +
+            Question.NO_CHAPTER + "), ua.isCorrect FROM UserAnswer ua JOIN ua.question q WHERE ua.user.id = :userId")
+    List<Object[]> findMasteryRows(@Param("userId") Long userId);
+
+    // Cheap ETag source: changes whenever an answer is added, changed or removed
+    @Query("SELECT MAX(ua.updatedAt), COUNT(ua) FROM UserAnswer ua WHERE ua.user.id = :userId")
+    List<Object[]> findProgressVersion(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserAnswer ua SET ua.updatedAt = :now WHERE ua.updatedAt IS NULL")
+    int backfillUpdatedAt(@Param("now") Instant now);
+
+    @Transactional
     void deleteByQuestionId(Long questionId);
 }
@@ -0,0 +1,117 @@
+package com.javatestbank.backend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes answers with a single multi-row {@code INSERT ... ON CONFLICT (user_id, question_id)
+ * DO UPDATE} backed by the {@code uk_user_answers_user_question} index. That removes the
+ * read-then-write round trip and the race where two tabs insert duplicate rows. The
+ * statement also returns each row's previous selection so callers can update counters
+ * without reading it first. PostgreSQL only; see {@link #isSupported()}.
+ */
+@Repository
+public class UserAnswerUpsertRepository {
+
+    /** One answer to write; {@code selectedIndices} is non-empty for multi-select answers. */
+    public record AnswerRow(Long userId, Long questionId, int selectedOptionIndex, List<Integer> selectedIndices, boolean correct) {}
+
+    /** The written row and what it held before, {@code previous} being null for a fresh insert. */
+    public record UpsertResult(long id, long userId, long questionId, List<Integer> previous) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean supported;
+
+    public UserAnswerUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isSupported() {
+        Boolean s = supported;
+        if (s == null) {
+            String product = jdbcTemplate.execute((java.sql.Connection c) -> c.getMetaData().getDatabaseProductName());
+            supported = s = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return s;
+    }
+
+    /**
+     * Upserts the rows in one statement and rewrites their selected indices with one
+     * DELETE and one JDBC batch. Rows must have a user and distinct (user, question)
+     * pairs (anonymous answers never conflict; insert them normally). Run inside a
+     * transaction. Results are in no particular order.
+     */
+    public List<UpsertResult> upsertAll(List<AnswerRow> rows) {
+        if (rows.isEmpty()) return List.of();
+        Timestamp now = Timestamp.from(Instant.now());
+
+        StringBuilder sql = new StringBuilder("WITH input (user_id, question_id, selected_option_index, is_correct) AS (VALUES ");
+        List<Object> args = new ArrayList<>(rows.size() * 4 + 1);
+        for (int i = 0; i < rows.size(); i++) {
+            AnswerRow r = rows.get(i);
+            if (i > 0) sql.append(", ");
+            sql.append("(CAST(? AS bigint), CAST(? AS bigint), CAST(? AS integer), CAST(? AS boolean))");
+            args.add(r.userId());
+            args.add(r.questionId());
+            args.add(r.selectedOptionIndex());
+            args.add(r.correct());
+        }
+        // The CTE reads the pre-statement snapshot, so "old" holds the values being replaced
+        sql.append("), old AS (")
+           .append("SELECT ua.id, ua.selected_option_index, ")
+           .append("(SELECT string_agg(CAST(i.selected_index AS varchar), ',') FROM user_answer_indices i WHERE i.user_answer_id = ua.id) AS old_indices ")
+           .append("FROM user_answers ua JOIN input ON ua.user_id = input.user_id AND ua.question_id = input.question_id) ")
+           .append("INSERT INTO user_answers (user_id, question_id, selected_option_index, is_correct, updated_at) ")
+           .append("SELECT user_id, question_id, selected_option_index, is_correct, CAST(? AS timestamp) FROM input ")
+           .append("ON CONFLICT (user_id, question_id) DO UPDATE SET ")
+           .append("selected_option_index = EXCLUDED.selected_option_index, is_correct = EXCLUDED.is_correct, updated_at = EXCLUDED.updated_at ")
+           .append("RETURNING id, user_id, question_id, ")
+           .append("(SELECT o.id FROM old o WHERE o.id = user_answers.id) AS old_id, ")
+           .append("(SELECT o.selected_option_index FROM old o WHERE o.id = user_answers.id) AS old_single, ")
+           .append("(SELECT o.old_indices FROM old o WHERE o.id = user_answers.id) AS old_indices");
+        args.add(now);
+
+        List<UpsertResult> results = jdbcTemplate.query(sql.toString(), (rs, n) -> {
+            long id = rs.getLong("id");
+            long userId = rs.getLong("user_id");
+            long questionId = rs.getLong("question_id");
+            rs.getLong("old_id");
+            List<Integer> previous = null;
+            if (!rs.wasNull()) {
+                String oldIndices = rs.getString("old_indices");
+                previous = oldIndices != null && !oldIndices.isEmpty()
+                        ? Arrays.stream(oldIndices.split(",")).map(Integer::valueOf).toList()
+                        : List.of(rs.getInt("old_single"));
+            }
+            return new UpsertResult(id, userId, questionId, previous);
+        }, args.toArray());
+
+        // RETURNING order is unspecified, so match rows back by their (user, question) key
+        Map<List<Long>, AnswerRow> byKey = new HashMap<>();
+        for (AnswerRow r : rows) byKey.put(List.of(r.userId(), r.questionId()), r);
+
+        List<Object[]> indexRows = new ArrayList<>();
+        List<Object> replacedIds = new ArrayList<>();
+        for (UpsertResult result : results) {
+            if (result.previous() != null) replacedIds.add(result.id());
+            AnswerRow row = byKey.get(List.of(result.userId(), result.questionId()));
+            for (Integer idx : row.selectedIndices()) indexRows.add(new Object[] { result.id(), idx });
+        }
+        if (!replacedIds.isEmpty()) {
+            String placeholders = String.join(", ", java.util.Collections.nCopies(replacedIds.size(), "?"));
+            jdbcTemplate.update("DELETE FROM user_answer_indices WHERE user_answer_id IN (" + placeholders + ")", replacedIds.toArray());
+        }
+        if (!indexRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO user_answer_indices (user_answer_id, selected_index) VALUES (?, ?)", indexRows);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,199 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.AIAnalysisCacheEntry;
+import com.javatestbank.backend.repository.AIAnalysisCacheRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of AI question analyses. The key is a hash of the exact
+ * prompt (which is built from text, code snippet, options and known correct index)
+ * plus the model, so any change to the inputs or the prompt template misses.
+ * A bounded in-memory LRU with TTL sits in front of the {@code ai_analysis_cache} table,
+ * which keeps entries across restarts; rows past the database TTL are purged periodically.
+ * Only analyses whose answer index fits the question's options are cached.
+ */
+@Service
+public class AIAnalysisCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AIAnalysisCache.class);
+
+    private final AIAnalysisCacheRepository repository;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Duration dbTtl;
+
+    private final LinkedHashMap<String, Entry> memory;
+    private final ScheduledExecutorService purger;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AIAnalysisCache(AIAnalysisCacheRepository repository,
+                           @Value("${ai.cache.max-entries:5000}") int maxEntries,
+                           @Value("${ai.cache.ttl-minutes:720}") long ttlMinutes,
+                           @Value("${ai.cache.db-ttl-days:90}") long dbTtlDays,
+                           @Value("${ai.cache.purge-interval-minutes:360}") long purgeIntervalMinutes) {
+        this.repository = repository;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+        this.dbTtl = Duration.ofDays(dbTtlDays);
+        // Access order turns the map into an LRU; eviction happens in put()
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AIAnalysisCache.this.maxEntries;
+            }
+        };
+        this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-cache-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        if (purgeIntervalMinutes > 0) {
+            purger.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalMinutes, purgeIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    public static String keyOf(String model, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Returns the cached analysis ({@code correctIndex}, {@code explanation}) or null.
+     * {@code optionCount} screens out stored rows whose index does not fit the question.
+     */
+    public Map<String, Object> get(String key, int optionCount) {
+        long now = System.nanoTime();
+        synchronized (memory) {
+            Entry e = memory.get(key);
+            if (e != null) {
+                if (now - e.expiresAt < 0) {
+                    memoryHits.incrementAndGet();
+                    return e.value;
+                }
+                memory.remove(key);
+            }
+        }
+
+        Optional<AIAnalysisCacheEntry> stored = findStored(key);
+        long remainingNanos = stored.map(row -> Duration.between(Instant.now(), row.getCreatedAt().plus(dbTtl)).toNanos()).orElse(0L);
+        if (remainingNanos > 0 && isValid(stored.get().getCorrectIndex(), optionCount)) {
+            AIAnalysisCacheEntry row = stored.get();
+            Map<String, Object> value = Map.of("correctIndex", row.getCorrectIndex(),
+                    "explanation", row.getExplanation() != null ? row.getExplanation() : "");
+            // A promoted row expires from memory no later than it would from the table
+            remember(key, value, Math.min(ttlNanos, remainingNanos));
+            dbHits.incrementAndGet();
+            return value;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /** Caches an analysis of a question with {@code optionCount} options; malformed or out-of-range answers are dropped. */
+    public void put(String key, Map<String, Object> analysis, int optionCount) {
+        Object index = analysis.get("correctIndex");
+        Object explanation = analysis.get("explanation");
+        if (!(index instanceof Integer) || !(explanation instanceof String) || !isValid((Integer) index, optionCount)) return;
+
+        remember(key, Map.of("correctIndex", index, "explanation", explanation), ttlNanos);
+        try {
+            repository.save(new AIAnalysisCacheEntry(key, (Integer) index, truncate((String) explanation), Instant.now()));
+        } catch (Exception e) {
+            // The memory tier still serves it; losing persistence only costs a future call
+            log.warn("Could not persist AI analysis cache entry: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long mem = memoryHits.get();
+        long db = dbHits.get();
+        long miss = misses.get();
+        long lookups = mem + db + miss;
+        int size;
+        synchronized (memory) {
+            size = memory.size();
+        }
+        return Map.of(
+            "memoryHits", mem,
+            "dbHits", db,
+            "misses", miss,
+            "hitRatio", lookups == 0 ? 0.0 : (double) (mem + db) / lookups,
+            "memoryEntries", size,
+            "maxEntries", maxEntries
+        );
+    }
+
+    /** Deletes table rows past the database TTL; returns how many were removed. */
+    public int purgeExpired() {
+        int removed = repository.deleteCreatedBefore(Instant.now().minus(dbTtl));
+        if (removed > 0) log.info("Purged {} expired AI analysis cache rows", removed);
+        return removed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+    }
+
+    private void purgeQuietly() {
+        try {
+            purgeExpired();
+        } catch (Exception e) {
+            log.warn("AI analysis cache purge failed: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isValid(Integer index, int optionCount) {
+        return index != null && index >= 0 && index < optionCount;
+    }
+
+    private Optional<AIAnalysisCacheEntry> findStored(String key) {
+        try {
+            return repository.findById(key);
+        } catch (Exception e) {
+            log.warn("AI analysis cache lookup failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void remember(String key, Map<String, Object> value, long ttl) {
+        synchronized (memory) {
+            memory.put(key, new Entry(value, System.nanoTime() + ttl));
+        }
+    }
+
+    private static String truncate(String s) {
+        return s.length() > 4995 ? s.substring(0, 4995) + "..." : s;
+    }
+
+    private record Entry(Map<String, Object> value, long expiresAt) {}
+}
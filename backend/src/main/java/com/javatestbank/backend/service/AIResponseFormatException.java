@@ -0,0 +1,17 @@
+package com.javatestbank.backend.service;
+
+/**
+ * The provider answered, but not with the JSON object the prompt asked for.
+ * Retrying the same deterministic prompt will not help.
+ */
+public class AIResponseFormatException extends RuntimeException {
+
+    private final String content;
+
+    public AIResponseFormatException(String message, String content) {
+        super(message);
+        this.content = content;
+    }
+
+    public String getContent() { return content; }
+}
@@ -2,10 +2,13 @@ package com.javatestbank.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
 
 import java.util.List;
 import java.util.Map;
@@ -13,18 +16,31 @@ import java.util.Map;
 @Service
 public class AIService {
 
-    @Value("${ai.api.key}")
-    private String apiKey;
+    private static final String MODEL = "llama-3.3-70b-versatile";
 
-    private final RestClient restClient;
+    private final ChatCompletionProvider provider;
     private final ObjectMapper objectMapper;
-
-    public AIService(RestClient.Builder builder, ObjectMapper objectMapper) {
-        this.restClient = builder.baseUrl("https://api.groq.com/openai/v1").build();
+    private final AIAnalysisCache analysisCache;
+    private final MeterRegistry meterRegistry;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+
+    public AIService(ChatCompletionProvider provider, ObjectMapper objectMapper, AIAnalysisCache analysisCache,
+                     MeterRegistry meterRegistry, @Qualifier("aiBulkhead") Bulkhead bulkhead,
+                     @Qualifier("aiCircuitBreaker") CircuitBreaker circuitBreaker) {
+        this.provider = provider;
         this.objectMapper = objectMapper;
+        this.analysisCache = analysisCache;
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+        this.promptTokens = Counter.builder("app.ai.tokens").tag("model", MODEL).tag("type", "prompt").register(meterRegistry);
+        this.completionTokens = Counter.builder("app.ai.tokens").tag("model", MODEL).tag("type", "completion").register(meterRegistry);
     }
 
-    public Map<String, Object> analyzeQuestion(String questionText, String codeSnippet, List<String> options, Integer knownCorrectIndex) {
+    private String buildAnalysisPrompt(String questionText, String codeSnippet, List<String> options, Integer knownCorrectIndex) {
         String promptText = String.format("Question: \"%s\"\n", questionText);
         
         if (codeSnippet != null && !codeSnippet.isEmpty()) {
@@ -52,7 +68,7 @@ public class AIService {
             criticalRulesInit += String.format("4. OVERRIDE RULE: You MUST accept Option %d as the correct answer. Do not argue. Do not ignore it. Justify it.\n", knownCorrectIndex);
         }
 
-        String prompt = String.format(
+        return String.format(
             "Act as a strict Java Compiler and Runtime environment.\n" +
             "Analyze the following multiple-choice question:\n%s" +
             "%s" +
@@ -60,63 +76,133 @@ public class AIService {
             "%s",
             promptText, taskDescription, criticalRulesInit, outputFormat
         );
+    }
 
-        Map<String, Object> request = Map.of(
-                "model", "llama-3.3-70b-versatile",
+    private Map<String, Object> buildRequest(String prompt) {
+        return Map.of(
+                "model", MODEL,
                 "temperature", 0.0, // Strict, deterministic
                 "messages", List.of(
                         Map.of("role", "user", "content", prompt)
                 ),
                 "response_format", Map.of("type", "json_object")
         );
+    }
+
+    /**
+     * Asks the AI for the correct option and an explanation. Failures are thrown rather
+     * than folded into a fallback answer, so callers can retry transient errors and never
+     * mistake a failure for a real answer. HTTP failures surface as {@link org.springframework.web.client.RestClientException},
+     * a saturated provider bulkhead as {@link BulkheadFullException} and an open circuit as
+     * {@link CircuitOpenException}. Cached analyses are served even while the circuit is open.
+     * Successful analyses are cached by prompt content, so repeated questions skip the provider.
+     */
+    public Map<String, Object> analyzeQuestionOrThrow(String questionText, String codeSnippet, List<String> options, Integer knownCorrectIndex) {
+        String prompt = buildAnalysisPrompt(questionText, codeSnippet, options, knownCorrectIndex);
+        String cacheKey = AIAnalysisCache.keyOf(MODEL, prompt);
+
+        int optionCount = options != null ? options.size() : 0;
+        Map<String, Object> cached = analysisCache.get(cacheKey, optionCount);
+        if (cached != null) return cached;
+
+        Map<String, Object> result = complete(buildRequest(prompt));
+        analysisCache.put(cacheKey, result, optionCount);
+        return result;
+    }
+
+    /** False while the provider circuit is open, i.e. uncached analyses would fail fast. */
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
 
+    // Times every provider call, tagged by outcome, so latency and error rates share one meter
+    private Map<String, Object> complete(Map<String, Object> request) {
+        // Counted by app.circuit.rejected rather than here, so the timer only sees real calls
+        if (!circuitBreaker.tryAcquire()) throw new CircuitOpenException("AI provider circuit is open");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
-            String responseBody = restClient.post()
-                    .uri("/chat/completions")
-                    .header("Authorization", "Bearer " + apiKey)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(request)
-                    .retrieve()
-                    .body(String.class);
-
-            if (responseBody == null) return Map.of("error", "Empty response from AI");
-
-            JsonNode root = objectMapper.readTree(responseBody);
-            JsonNode choices = root.path("choices");
-            if (choices.isArray() && !choices.isEmpty()) {
-                JsonNode message = choices.get(0).path("message");
-                String content = message.path("content").asText();
-                
-                // CLEANUP: Strip Markdown Code Blocks if present
-                if (content.contains("```json")) {
-                    content = content.replace("```json", "").replace("```", "");
-                } else if (content.contains("```")) {
-                    content = content.replace("```", "");
-                }
-                content = content.trim();
-
-                // Parse the inner JSON content
-                try {
-                    JsonNode contentJson = objectMapper.readTree(content);
-                    int correctIndex = contentJson.path("correctIndex").asInt(0);
-                    String explanation = contentJson.path("explanation").asText("Explanation unavailable.");
-                    
-                    return Map.of("correctIndex", correctIndex, "explanation", explanation);
-                } catch (Exception e) {
-                    System.err.println("Failed to parse inner JSON content: " + content);
-                    return Map.of("correctIndex", 0, "explanation", "Error parsing AI response: " + content);
-                }
+            String body;
+            try {
+                body = bulkhead.call(() -> provider.complete(request));
+            } catch (RestClientResponseException e) {
+                outcome = "http_" + e.getStatusCode().value();
+                if (e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == 429) circuitBreaker.onFailure();
+                else circuitBreaker.onIgnored();
+                throw e;
+            } catch (BulkheadFullException e) {
+                outcome = "rejected";
+                circuitBreaker.onIgnored();
+                throw e;
+            } catch (RuntimeException e) {
+                outcome = e instanceof ResourceAccessException ? "io_error" : "error";
+                circuitBreaker.onFailure();
+                throw e;
             }
+            // Recorded once, here: the provider answered, and a malformed answer is not an outage
+            circuitBreaker.onSuccess();
+            outcome = "bad_response";
+            Map<String, Object> result = parseCompletion(body);
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("app.ai.requests")
+                    .description("Chat completion calls to the AI provider")
+                    .tag("model", MODEL)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private Map<String, Object> parseCompletion(String responseBody) {
+        if (responseBody == null) throw new AIResponseFormatException("Empty response from AI", "");
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(responseBody);
         } catch (Exception e) {
-            e.printStackTrace();
-            return Map.of("error", "AI Service Connection Failed: " + e.getMessage());
+            throw new AIResponseFormatException("Unreadable response from AI", responseBody);
         }
-        return Map.of("explanation", "AI failed to generate response.");
+        JsonNode usage = root.path("usage");
+        promptTokens.increment(usage.path("prompt_tokens").asDouble(0));
+        completionTokens.increment(usage.path("completion_tokens").asDouble(0));
+
+        JsonNode choices = root.path("choices");
+        if (!choices.isArray() || choices.isEmpty()) {
+            throw new AIResponseFormatException("AI failed to generate response.", responseBody);
+        }
+
+        JsonNode message = choices.get(0).path("message");
+        String content = message.path("content").asText();
+
+        // CLEANUP: Strip Markdown Code Blocks if present
+        if (content.contains("```json")) {
+            content = content.replace("```json", "").replace("```", "");
+        } else if (content.contains("```")) {
+            content = content.replace("```", "");
+        }
+        content = content.trim();
+
+        // Parse the inner JSON content
+        JsonNode contentJson;
+        try {
+            contentJson = objectMapper.readTree(content);
+        } catch (Exception e) {
+            throw new AIResponseFormatException("Failed to parse inner JSON content", content);
+        }
+        if (!contentJson.path("correctIndex").canConvertToInt()) {
+            throw new AIResponseFormatException("AI response has no correctIndex", content);
+        }
+        int correctIndex = contentJson.path("correctIndex").asInt();
+        String explanation = contentJson.path("explanation").asText("Explanation unavailable.");
+
+        return Map.of("correctIndex", correctIndex, "explanation", explanation);
     }
-    
-    // Fallback logic
+
+    // Throws on failure so the caller does not persist an error text as the explanation
     public String generateExplanation(String questionText, String codeSnippet, String correctAnswer) {
-        Map<String, Object> result = analyzeQuestion(questionText, codeSnippet, List.of(correctAnswer), 0);
+        Map<String, Object> result = analyzeQuestionOrThrow(questionText, codeSnippet, List.of(correctAnswer), 0);
         return (String) result.getOrDefault("explanation", "No explanation generated.");
     }
 }
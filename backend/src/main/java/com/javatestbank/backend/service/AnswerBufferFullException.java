@@ -0,0 +1,16 @@
+package com.javatestbank.backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * {@link AnswerWriteBuffer} already holds its maximum of unwritten answers, typically
+ * because the database is down. The client should retry; maps to 503.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AnswerBufferFullException extends RuntimeException {
+
+    public AnswerBufferFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.QuestionSnapshot;
+import org.springframework.stereotype.Component;
+
+/**
+ * Grades submissions against a question's precomputed correct-answer bitmask.
+ * A submission is correct when its selected option set equals the correct set,
+ * which covers single answers, multi-select, and single answers to multi-select
+ * questions (always wrong) with one comparison and no allocation. Selections are
+ * sets: a repeated index names its option once, so {@code [0, 1, 1]} is {@code {0, 1}}.
+ */
+@Component
+public class AnswerGrader {
+
+    public boolean grade(QuestionSnapshot question, int selectedIndex) {
+        long correct = question.getCorrectMask();
+        return correct != 0 && selectedIndex >= 0 && selectedIndex < Long.SIZE
+                && correct == 1L << selectedIndex;
+    }
+
+    public boolean grade(QuestionSnapshot question, int[] selectedIndices) {
+        long correct = question.getCorrectMask();
+        if (correct == 0) return false;
+        long selected = 0;
+        for (int i : selectedIndices) {
+            // Every 64-bit value is some option set, so an unrepresentable index fails here rather than as a mask
+            if (i < 0 || i >= Long.SIZE) return false;
+            selected |= 1L << i;
+        }
+        return selected == correct;
+    }
+}
@@ -0,0 +1,359 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.UserAnswer;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.repository.UserAnswerRepository;
+import com.javatestbank.backend.repository.UserAnswerUpsertRepository;
+import com.javatestbank.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for graded answers. Submissions are acknowledged immediately.
+ * Repeat answers from a user to the same question are coalesced, and the buffer is
+ * flushed in one batched transaction (a single upsert statement on PostgreSQL) when it reaches {@code max-pending} or every
+ * {@code flush-interval-ms}, and drained on shutdown.
+ * <p>
+ * {@code app.answers.write-mode} selects the crash-loss trade-off: {@code buffered}
+ * may lose up to one flush interval of answers if the process dies, while {@code sync}
+ * writes each answer before the response is sent and fails the request if it cannot.
+ * <p>
+ * A batch that fails because the database is unreachable is put back and retried on the
+ * next flush; at most {@code max-buffered} answers are held, beyond which
+ * {@link #submit} refuses new ones with {@link AnswerBufferFullException}.
+ */
+@Service
+public class AnswerWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerWriteBuffer.class);
+
+    private final UserAnswerRepository userAnswerRepository;
+    private final UserAnswerUpsertRepository upsertRepository;
+    private final UserRepository userRepository;
+    private final QuestionRepository questionRepository;
+    private final QuestionStatsStore questionStatsStore;
+    private final TransactionTemplate tx;
+    private final boolean synchronous;
+    private final int maxPending;
+    private final int maxBuffered;
+    private final ScheduledExecutorService flusher;
+
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private Map<Key, Pending> pending = new LinkedHashMap<>();
+    // The batch being written by flush(); invisible to queries until it commits
+    private List<Pending> inFlight = List.of();
+
+    // Anonymous answers are never coalesced, so each gets its own key
+    private final AtomicLong anonymousSeq = new AtomicLong();
+
+    public AnswerWriteBuffer(UserAnswerRepository userAnswerRepository, UserAnswerUpsertRepository upsertRepository,
+                             UserRepository userRepository,
+                             QuestionRepository questionRepository, QuestionStatsStore questionStatsStore,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.answers.write-mode:buffered}") String writeMode,
+                             @Value("${app.answers.flush-interval-ms:500}") long flushIntervalMillis,
+                             @Value("${app.answers.max-pending:1000}") int maxPending,
+                             @Value("${app.answers.max-buffered:10000}") int maxBuffered) {
+        this.userAnswerRepository = userAnswerRepository;
+        this.upsertRepository = upsertRepository;
+        this.userRepository = userRepository;
+        this.questionRepository = questionRepository;
+        this.questionStatsStore = questionStatsStore;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.synchronous = "sync".equalsIgnoreCase(writeMode);
+        this.maxPending = Math.max(1, maxPending);
+        this.maxBuffered = Math.max(1, maxBuffered);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "answer-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        if (!synchronous) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queues a graded answer. Exactly one of {@code single} and {@code multi} is set.
+     * {@code userId} is null for anonymous answers. In sync mode the answer is written
+     * before this returns and write failures propagate to the caller.
+     */
+    public void submit(Long userId, Long questionId, Integer single, List<Integer> multi, boolean correct) {
+        Key key = new Key(userId, questionId, userId == null ? anonymousSeq.incrementAndGet() : 0);
+        Pending answer = new Pending(key, userId, questionId, single, multi, correct);
+        if (synchronous) {
+            applyStats(write(List.of(answer)));
+            return;
+        }
+
+        boolean full;
+        synchronized (lock) {
+            // A repeat answer replaces its pending entry, so only new keys count against the bound
+            if (pending.size() >= maxBuffered && !pending.containsKey(key)) {
+                throw new AnswerBufferFullException("Answer buffer is full (" + maxBuffered + " pending writes)");
+            }
+            pending.put(key, answer);
+            full = pending.size() >= maxPending;
+        }
+        if (full) flusher.execute(this::flushQuietly);
+    }
+
+    /** Drops buffered answers for a question that is being deleted. */
+    public void discardQuestion(Long questionId) {
+        synchronized (lock) {
+            pending.keySet().removeIf(k -> k.questionId.equals(questionId));
+        }
+    }
+
+    /**
+     * Answers of a signed-in user that queries cannot see yet: still buffered or in a
+     * flush that has not committed. Each question appears once, with its latest answer.
+     */
+    public List<BufferedAnswer> unwrittenAnswers(Long userId) {
+        Map<Long, BufferedAnswer> latest = new LinkedHashMap<>();
+        synchronized (lock) {
+            for (Pending p : inFlight) {
+                if (userId.equals(p.userId)) latest.put(p.questionId, new BufferedAnswer(p.questionId, p.correct));
+            }
+            for (Pending p : pending.values()) {
+                if (userId.equals(p.userId)) latest.put(p.questionId, new BufferedAnswer(p.questionId, p.correct));
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    public int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            List<Pending> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) return;
+                batch = new ArrayList<>(pending.values());
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+            }
+            try {
+                flushBatch(batch);
+            } finally {
+                synchronized (lock) {
+                    inFlight = List.of();
+                }
+            }
+        }
+    }
+
+    private void flushBatch(List<Pending> batch) {
+        List<StatsDelta> committed = new ArrayList<>(batch.size());
+        try {
+            committed.addAll(write(batch));
+        } catch (Exception e) {
+            if (isTransient(e)) {
+                log.warn("Answer flush failed ({}), keeping {} answers for the next flush", e.getMessage(), batch.size());
+                requeue(batch);
+                return;
+            }
+            // One bad row (e.g. its question was deleted) must not sink the rest
+            log.warn("Batched answer flush failed ({}), retrying {} answers one by one", e.getMessage(), batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Pending p = batch.get(i);
+                try {
+                    committed.addAll(write(List.of(p)));
+                } catch (Exception single) {
+                    if (isTransient(single)) {
+                        requeue(batch.subList(i, batch.size()));
+                        break;
+                    }
+                    log.warn("Dropping answer of user {} to question {}: {}", p.userId, p.questionId, single.getMessage());
+                }
+            }
+        }
+        // Outside the retry path: these rows are committed and must not be written again
+        applyStats(committed);
+    }
+
+    // Newer answers submitted since the batch was taken win over the requeued ones
+    private void requeue(List<Pending> answers) {
+        synchronized (lock) {
+            Map<Key, Pending> merged = new LinkedHashMap<>();
+            for (Pending p : answers) merged.put(p.key, p);
+            merged.putAll(pending);
+            pending = merged;
+        }
+    }
+
+    private void applyStats(List<StatsDelta> deltas) {
+        for (StatsDelta d : deltas) {
+            try {
+                questionStatsStore.record(d.questionId, d.previous, d.current);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply answer stats for question {}: {}", d.questionId, e.getMessage());
+            }
+        }
+    }
+
+    // Database unreachable or saturated: worth retrying the same rows later
+    private static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TransientDataAccessException || t instanceof DataAccessResourceFailureException
+                    || t instanceof CannotCreateTransactionException || t instanceof BulkheadFullException
+                    || t instanceof SQLTransientException || t instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Writes in one transaction and returns the stats changes of the committed rows
+    private List<StatsDelta> write(List<Pending> batch) {
+        boolean upsert = upsertRepository.isSupported();
+        List<StatsDelta> deltas = tx.execute(status -> {
+            List<StatsDelta> changes = new ArrayList<>(batch.size());
+            List<Pending> viaJpa = batch;
+
+            if (upsert) {
+                // Signed-in answers go through one INSERT ... ON CONFLICT; anonymous ones never conflict
+                viaJpa = new ArrayList<>();
+                List<UserAnswerUpsertRepository.AnswerRow> rows = new ArrayList<>();
+                Map<Key, Pending> byKey = new HashMap<>();
+                for (Pending p : batch) {
+                    if (p.userId == null) {
+                        viaJpa.add(p);
+                        continue;
+                    }
+                    boolean isMulti = p.multi != null && !p.multi.isEmpty();
+                    rows.add(new UserAnswerUpsertRepository.AnswerRow(p.userId, p.questionId,
+                            !isMulti && p.single != null ? p.single : 0, isMulti ? p.multi : List.of(), p.correct));
+                    byKey.put(new Key(p.userId, p.questionId, 0), p);
+                }
+                for (UserAnswerUpsertRepository.UpsertResult r : upsertRepository.upsertAll(rows)) {
+                    Pending p = byKey.get(new Key(r.userId(), r.questionId(), 0));
+                    changes.add(new StatsDelta(r.questionId(), r.previous(), selectionOf(p)));
+                }
+            }
+
+            changes.addAll(writeWithJpa(viaJpa));
+            return changes;
+        });
+        // Applied by the caller after commit, so a rolled-back batch never skews the counters
+        return deltas != null ? deltas : List.of();
+    }
+
+    // Portable read-then-write path, used for anonymous answers and databases without ON CONFLICT
+    private List<StatsDelta> writeWithJpa(List<Pending> batch) {
+        if (batch.isEmpty()) return List.of();
+        Map<Key, UserAnswer> existing = loadExisting(batch);
+        List<UserAnswer> toSave = new ArrayList<>(batch.size());
+        List<StatsDelta> changes = new ArrayList<>(batch.size());
+
+        for (Pending p : batch) {
+            UserAnswer ua = p.userId == null ? null : existing.get(new Key(p.userId, p.questionId, 0));
+            List<Integer> previous = null;
+            if (ua == null) {
+                ua = new UserAnswer();
+                if (p.userId != null) ua.setUser(userRepository.getReferenceById(p.userId));
+                ua.setQuestion(questionRepository.getReferenceById(p.questionId));
+            } else {
+                previous = selectionOf(ua);
+            }
+
+            if (p.single != null) {
+                ua.setSelectedOptionIndex(p.single);
+                ua.setSelectedIndices(new ArrayList<>()); // Drop a stale multi-select answer
+            }
+            if (p.multi != null) ua.setSelectedIndices(new ArrayList<>(p.multi));
+            ua.setCorrect(p.correct);
+
+            toSave.add(ua);
+            changes.add(new StatsDelta(p.questionId, previous, selectionOf(ua)));
+        }
+        userAnswerRepository.saveAll(toSave);
+        return changes;
+    }
+
+    private Map<Key, UserAnswer> loadExisting(List<Pending> batch) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> questionIds = new HashSet<>();
+        for (Pending p : batch) {
+            if (p.userId != null) {
+                userIds.add(p.userId);
+                questionIds.add(p.questionId);
+            }
+        }
+        Map<Key, UserAnswer> existing = new HashMap<>();
+        if (userIds.isEmpty()) return existing;
+
+        // One query for the whole batch; the IN x IN cross product is filtered by key below
+        for (UserAnswer ua : userAnswerRepository.findByUserIdInAndQuestionIdIn(userIds, questionIds)) {
+            existing.put(new Key(ua.getUser().getId(), ua.getQuestion().getId(), 0), ua);
+        }
+        return existing;
+    }
+
+    // Options an answer counts toward in the stats: all picks for multi-select, else the single pick
+    private static List<Integer> selectionOf(Pending p) {
+        if (p.multi != null && !p.multi.isEmpty()) return List.copyOf(p.multi);
+        return List.of(p.single != null ? p.single : 0);
+    }
+
+    static List<Integer> selectionOf(UserAnswer ua) {
+        if (ua.getSelectedIndices() != null && !ua.getSelectedIndices().isEmpty()) {
+            return List.copyOf(ua.getSelectedIndices());
+        }
+        return List.of(ua.getSelectedOptionIndex());
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Answer flush failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public record BufferedAnswer(Long questionId, boolean correct) {}
+
+    private record Key(Long userId, Long questionId, long anonymousSeq) {}
+
+    private record Pending(Key key, Long userId, Long questionId, Integer single, List<Integer> multi, boolean correct) {}
+
+    private record StatsDelta(Long questionId, List<Integer> previous, List<Integer> current) {}
+}
@@ -0,0 +1,117 @@
+package com.javatestbank.backend.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent calls into one downstream dependency. Up to {@code maxConcurrent}
+ * callers run; up to {@code maxQueued} more wait at most {@code maxWait} for a slot;
+ * anyone beyond that is rejected with {@link BulkheadFullException} straight away.
+ * A slow dependency therefore holds a bounded number of threads, which matters most
+ * on virtual threads where the web tier itself no longer limits concurrency.
+ *
+ * <p>Publishes {@code app.bulkhead.active}, {@code app.bulkhead.queued},
+ * {@code app.bulkhead.rejected} and {@code app.bulkhead.wait}, tagged by name.
+ */
+public class Bulkhead implements MeterBinder {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile Timer waitTimer;
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, Duration maxWait) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = Math.max(0, maxQueued);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /** Takes a slot, waiting if allowed. Every successful call must be paired with {@link #release}. */
+    public void acquire() {
+        long start = System.nanoTime();
+        if (!permits.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                throw reject("queue full");
+            }
+            try {
+                if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) throw reject("wait timed out");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("interrupted");
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+        Timer timer = waitTimer;
+        if (timer != null) timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public <T> T call(Supplier<T> work) {
+        acquire();
+        try {
+            return work.get();
+        } finally {
+            release();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "name", name,
+                "active", active(),
+                "queued", queued.get(),
+                "rejected", rejected.get(),
+                "maxConcurrent", maxConcurrent,
+                "maxQueued", maxQueued);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.bulkhead.active", this, Bulkhead::active)
+                .description("Calls currently holding a bulkhead slot")
+                .tag("name", name).register(registry);
+        Gauge.builder("app.bulkhead.queued", queued, AtomicInteger::get)
+                .description("Calls waiting for a bulkhead slot")
+                .tag("name", name).register(registry);
+        FunctionCounter.builder("app.bulkhead.rejected", rejected, AtomicLong::get)
+                .description("Calls shed because the bulkhead queue was full or the wait timed out")
+                .tag("name", name).register(registry);
+        waitTimer = Timer.builder("app.bulkhead.wait")
+                .description("Time spent waiting for a bulkhead slot")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    private BulkheadFullException reject(String reason) {
+        rejected.incrementAndGet();
+        return new BulkheadFullException("Bulkhead '" + name + "' rejected the call: " + reason);
+    }
+}
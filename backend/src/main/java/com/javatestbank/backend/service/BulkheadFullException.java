@@ -0,0 +1,17 @@
+package com.javatestbank.backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A {@link Bulkhead} shed the call: its queue was full or the wait ran out. Spring
+ * finds the status through wrapping exceptions too, so a saturated dependency
+ * surfaces as 503 wherever it is hit.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.javatestbank.backend.service;
+
+import java.util.Map;
+
+/**
+ * Transport to an OpenAI-compatible {@code /chat/completions} endpoint. {@link AIService}
+ * owns prompts, caching, parsing and failure isolation; a provider only moves the
+ * request and returns the raw response body. A {@code @Primary} bean of this type
+ * swaps in a local fake.
+ *
+ * <p>Failures must surface as Spring's client exceptions so callers can classify them:
+ * {@link org.springframework.web.client.RestClientResponseException} for an HTTP error
+ * status, {@link org.springframework.web.client.ResourceAccessException} for I/O
+ * errors and timeouts.
+ */
+public interface ChatCompletionProvider {
+
+    String complete(Map<String, Object> request);
+}
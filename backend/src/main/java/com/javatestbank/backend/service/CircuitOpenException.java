@@ -0,0 +1,16 @@
+package com.javatestbank.backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A {@link CircuitBreaker} is open, so the call was not attempted. Maps to 503 like
+ * {@link BulkheadFullException}.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,188 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.repository.QuestionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Generates missing question explanations in the background so answer checks never
+ * wait on the LLM. Concurrent requests for the same question share one generation.
+ * After a failed generation the question backs off (doubling per consecutive failure,
+ * capped), so answer checks do not re-queue the same failing prompt every time.
+ */
+@Service
+public class ExplanationService {
+
+    public static final String STATUS_READY = "ready";
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_UNAVAILABLE = "unavailable";
+    // Shown while the AI circuit is open; never persisted, so the real one is generated once it closes
+    public static final String PLACEHOLDER = "An explanation isn't available right now. Please check back in a minute.";
+
+    private static final Logger log = LoggerFactory.getLogger(ExplanationService.class);
+    // Past this many tracked failures, entries whose backoff has run out are dropped
+    private static final int MAX_TRACKED_FAILURES = 10_000;
+
+    private final AIService aiService;
+    private final QuestionRepository questionRepository;
+    private final QuestionCache questionCache;
+    private final ExecutorService executor;
+    private final Map<Long, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Failure> failures = new ConcurrentHashMap<>();
+    private final long failureBackoffNanos;
+    private final long maxFailureBackoffNanos;
+
+    public ExplanationService(AIService aiService, QuestionRepository questionRepository, QuestionCache questionCache,
+                              @Value("${ai.explanation.workers:2}") int workers,
+                              @Value("${ai.explanation.queue-capacity:500}") int queueCapacity,
+                              @Value("${ai.explanation.failure-backoff-ms:30000}") long failureBackoffMillis,
+                              @Value("${ai.explanation.max-failure-backoff-ms:600000}") long maxFailureBackoffMillis) {
+        this.aiService = aiService;
+        this.questionRepository = questionRepository;
+        this.questionCache = questionCache;
+        this.failureBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, failureBackoffMillis));
+        this.maxFailureBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(failureBackoffMillis, maxFailureBackoffMillis));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "explanation-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public boolean hasExplanation(QuestionSnapshot question) {
+        return question.getExplanation() != null && !question.getExplanation().isEmpty();
+    }
+
+    /**
+     * Returns {@link #STATUS_READY} when the question has an explanation. Otherwise starts
+     * (or joins) generation and returns {@link #STATUS_PENDING}, or returns
+     * {@link #STATUS_UNAVAILABLE} without queueing while the AI provider circuit is open
+     * or the question is backing off after a failed generation.
+     */
+    public String ensure(QuestionSnapshot question) {
+        if (hasExplanation(question)) return STATUS_READY;
+        if (!isPending(question.getId()) && (isBackingOff(question.getId()) || !aiService.isAvailable())) {
+            return STATUS_UNAVAILABLE;
+        }
+        request(question);
+        return STATUS_PENDING;
+    }
+
+    public static String displayText(QuestionSnapshot question, String status) {
+        if (STATUS_READY.equals(status)) return question.getExplanation();
+        return STATUS_UNAVAILABLE.equals(status) ? PLACEHOLDER : "";
+    }
+
+    /**
+     * Queues generation for a question without an explanation, or joins the one
+     * already running for it. Everything the prompt needs is read here, on the
+     * caller's thread. Fails immediately while the question is backing off.
+     */
+    public CompletableFuture<String> request(QuestionSnapshot question) {
+        Long questionId = question.getId();
+        CompletableFuture<String> existing = inFlight.get(questionId);
+        if (existing != null) return existing;
+        if (isBackingOff(questionId)) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Explanation generation for question " + questionId + " failed recently; retrying later"));
+        }
+
+        String text = question.getText();
+        String codeSnippet = question.getCodeSnippet();
+        String correctAnswerText = correctAnswerText(question);
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> raced = inFlight.putIfAbsent(questionId, future);
+        if (raced != null) return raced;
+
+        try {
+            executor.execute(() -> generate(questionId, text, codeSnippet, correctAnswerText, future));
+        } catch (RejectedExecutionException e) {
+            // Queue full: let a later request retry instead of pinning a failed future
+            inFlight.remove(questionId, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public boolean isPending(Long questionId) {
+        return inFlight.containsKey(questionId);
+    }
+
+    public boolean isBackingOff(Long questionId) {
+        Failure f = failures.get(questionId);
+        return f != null && System.nanoTime() - f.retryAt < 0;
+    }
+
+    private void generate(Long questionId, String text, String codeSnippet, String correctAnswerText,
+                          CompletableFuture<String> future) {
+        try {
+            String explanation = aiService.generateExplanation(text, codeSnippet, correctAnswerText);
+            if (explanation != null && explanation.length() > 1995) explanation = explanation.substring(0, 1995) + "...";
+            questionRepository.updateExplanation(questionId, explanation);
+            questionCache.invalidate(questionId);
+            failures.remove(questionId);
+            // Leave inFlight before completing, so whoever sees the result also sees it settled
+            inFlight.remove(questionId, future);
+            future.complete(explanation);
+        } catch (Exception e) {
+            Failure f = recordFailure(questionId);
+            log.warn("Explanation generation failed for question {} ({} in a row, next try in {}s): {}", questionId,
+                    f.count, TimeUnit.NANOSECONDS.toSeconds(f.retryAt - System.nanoTime()), e.getMessage());
+            inFlight.remove(questionId, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private Failure recordFailure(Long questionId) {
+        if (failures.size() >= MAX_TRACKED_FAILURES) {
+            long now = System.nanoTime();
+            failures.values().removeIf(f -> now - f.retryAt >= 0);
+        }
+        return failures.compute(questionId, (id, previous) -> {
+            int count = previous == null ? 1 : previous.count + 1;
+            // 1x, 2x, 4x ... the base backoff, up to the cap
+            long backoff = Math.min(maxFailureBackoffNanos, failureBackoffNanos << Math.min(count - 1, 20));
+            return new Failure(count, System.nanoTime() + backoff);
+        });
+    }
+
+    private static String correctAnswerText(QuestionSnapshot question) {
+        List<String> options = question.getOptions();
+        if (options == null) return "";
+        if (question.getCorrectIndices() != null && !question.getCorrectIndices().isEmpty()) {
+            return question.getCorrectIndices().stream()
+                    .filter(i -> i >= 0 && i < options.size())
+                    .map(options::get)
+                    .collect(Collectors.joining(", "));
+        }
+        Integer idx = question.getCorrectIndex();
+        return idx != null && idx >= 0 && idx < options.size() ? options.get(idx) : "";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private record Failure(int count, long retryAt) {}
+}
@@ -0,0 +1,138 @@
+package com.javatestbank.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link ChatCompletionProvider} on the JDK HTTP client: one shared client, so
+ * connections are pooled and kept alive, negotiating HTTP/2 where the provider
+ * offers it. Every call has a connect timeout and an overall deadline.
+ *
+ * <p>With {@code hedgeAfter} set, a call still unanswered after that long is sent a
+ * second time and the first successful (2xx) answer wins; the loser is cancelled. An
+ * error status only fails its own attempt, so the other one keeps running. This
+ * trims tail latency at the cost of extra provider requests, so it is off by default.
+ */
+public class HttpChatCompletionProvider implements ChatCompletionProvider {
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI endpoint;
+    private final String apiKey;
+    private final Duration deadline;
+    private final Duration hedgeAfter;
+    private final Counter hedged;
+
+    public HttpChatCompletionProvider(ObjectMapper objectMapper, MeterRegistry meterRegistry, String baseUrl, String apiKey,
+                                      Duration connectTimeout, Duration deadline, Duration hedgeAfter) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // Falls back to HTTP/1.1 when ALPN does not offer h2
+                .connectTimeout(connectTimeout)
+                .build();
+        this.objectMapper = objectMapper;
+        this.endpoint = URI.create(baseUrl.replaceAll("/+$", "") + "/chat/completions");
+        this.apiKey = apiKey;
+        this.deadline = deadline;
+        this.hedgeAfter = hedgeAfter;
+        this.hedged = Counter.builder("app.ai.hedged")
+                .description("Provider calls that were re-sent because the first attempt was slow")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String complete(Map<String, Object> request) {
+        HttpRequest httpRequest = HttpRequest.newBuilder(endpoint)
+                .timeout(deadline)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(request)))
+                .build();
+
+        CompletableFuture<HttpResponse<String>> primary = send(httpRequest);
+        CompletableFuture<HttpResponse<String>> hedge = null;
+        try {
+            if (hedgeAfter.isZero() || hedgeAfter.compareTo(deadline) >= 0) {
+                return bodyOrThrow(primary.get(deadline.toMillis(), TimeUnit.MILLISECONDS));
+            }
+            try {
+                return bodyOrThrow(primary.get(hedgeAfter.toMillis(), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException slow) {
+                hedged.increment();
+                hedge = send(httpRequest);
+                // An error status fails its attempt, so a fast 429/5xx from one never beats a good answer from the other
+                return firstSuccessful(primary.thenApply(this::bodyOrThrow), hedge.thenApply(this::bodyOrThrow))
+                        .get(deadline.minus(hedgeAfter).toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("AI provider did not answer within " + deadline.toMillis() + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for the AI provider");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new ResourceAccessException("AI provider call failed: " + cause.getMessage(),
+                    cause instanceof IOException io ? io : new IOException(cause));
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) hedge.cancel(true);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    // Completes with the first successful attempt, or fails only once both attempts have failed
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> a, CompletableFuture<T> b) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        a.whenComplete((r, e) -> {
+            if (e == null) result.complete(r);
+            else b.whenComplete((r2, e2) -> { if (e2 != null) result.completeExceptionally(e); });
+        });
+        b.whenComplete((r, e) -> {
+            if (e == null) result.complete(r);
+            else a.whenComplete((r1, e1) -> { if (e1 != null) result.completeExceptionally(e); });
+        });
+        return result;
+    }
+
+    private String bodyOrThrow(HttpResponse<String> response) {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) return response.body();
+
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        throw new RestClientResponseException("AI provider returned " + status, HttpStatusCode.valueOf(status), "",
+                headers, response.body().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private String toJson(Map<String, Object> request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable chat request", e);
+        }
+    }
+}
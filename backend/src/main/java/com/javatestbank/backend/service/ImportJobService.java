@@ -0,0 +1,139 @@
+package com.javatestbank.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs bulk imports off the request thread. Screening and AI enrichment can take
+ * minutes for a large upload, so the endpoint answers 202 with a job id right away
+ * and the client polls {@link #status} until the job has finished. Finished jobs are
+ * kept for {@code app.import.jobs.retention-minutes}, then forgotten.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    public static final String STATUS_QUEUED = "queued";
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_DONE = "done";
+    public static final String STATUS_FAILED = "failed";
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(@Value("${app.import.jobs.workers:2}") int workers,
+                            @Value("${app.import.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${app.import.jobs.retention-minutes:60}") long retentionMinutes) {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue: a burst of uploads is refused instead of piling up AI work
+        this.executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "import-job-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * Queues {@code work} and returns the job id. The response it produces becomes the
+     * job result, status code included. Throws {@link ImportQueueFullException} when
+     * the queue is full.
+     */
+    public String submit(String kind, Supplier<ResponseEntity<?>> work) {
+        purgeFinished();
+        Job job = new Job(UUID.randomUUID().toString(), kind);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new ImportQueueFullException("Too many imports in progress, retry later");
+        }
+        return job.id;
+    }
+
+    /** The job's state, with its result once finished; empty for unknown or expired ids. */
+    public Optional<Map<String, Object>> status(String id) {
+        Job job = jobs.get(id);
+        return job == null ? Optional.empty() : Optional.of(job.toReport());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job, Supplier<ResponseEntity<?>> work) {
+        job.status = STATUS_RUNNING;
+        try {
+            ResponseEntity<?> response = work.get();
+            job.httpStatus = response.getStatusCode().value();
+            job.result = response.getBody();
+            job.status = STATUS_DONE;
+        } catch (Exception e) {
+            log.error("Import job {} ({}) failed", job.id, job.kind, e);
+            job.httpStatus = 500;
+            job.result = Map.of("message", "Import failed: " + e.getMessage());
+            job.status = STATUS_FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+        }
+    }
+
+    private void purgeFinished() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(cutoff));
+    }
+
+    private static final class Job {
+        final String id;
+        final String kind;
+        final Instant createdAt = Instant.now();
+        volatile String status = STATUS_QUEUED;
+        volatile int httpStatus;
+        volatile Object result;
+        volatile Instant finishedAt;
+
+        Job(String id, String kind) {
+            this.id = id;
+            this.kind = kind;
+        }
+
+        Map<String, Object> toReport() {
+            // Read before everything else: run() writes it last, so a finished job reports its final state
+            Instant finished = finishedAt;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("jobId", id);
+            m.put("kind", kind);
+            m.put("status", status);
+            m.put("createdAt", createdAt.toString());
+            if (finished != null) {
+                m.put("finishedAt", finished.toString());
+                m.put("httpStatus", httpStatus);
+                m.put("result", result);
+            }
+            return m;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.javatestbank.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Embedded inverted index used when the database has no full-text search (H2 dev
+ * runs, tests). Terms map to per-question weights; a query term matches every
+ * indexed term it is a prefix of, and all query terms must match (AND), mirroring
+ * the {@code term:* & term:*} queries sent to PostgreSQL.
+ */
+public class InMemoryQuestionSearchIndex {
+
+    public static final double TEXT_WEIGHT = 1.0;
+    public static final double OPTION_WEIGHT = 0.4;
+    public static final double CODE_WEIGHT = 0.2;
+
+    // term -> (question id -> accumulated weight); sorted so prefixes are a subMap range
+    private final TreeMap<String, Map<Long, Double>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByQuestion = new HashMap<>();
+
+    public synchronized void put(long id, String text, List<String> options, String codeSnippet) {
+        remove(id);
+        Set<String> terms = new HashSet<>();
+        add(id, text, TEXT_WEIGHT, terms);
+        if (options != null) {
+            for (String option : options) add(id, option, OPTION_WEIGHT, terms);
+        }
+        add(id, codeSnippet, CODE_WEIGHT, terms);
+        termsByQuestion.put(id, terms);
+    }
+
+    public synchronized void remove(long id) {
+        Set<String> terms = termsByQuestion.remove(id);
+        if (terms == null) return;
+        for (String term : terms) {
+            Map<Long, Double> posting = postings.get(term);
+            if (posting == null) continue;
+            posting.remove(id);
+            if (posting.isEmpty()) postings.remove(term);
+        }
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        termsByQuestion.clear();
+    }
+
+    /** Ranked ids (best first) of questions matching every term by prefix. */
+    public synchronized List<QuestionSearchService.Hit> search(Collection<String> queryTerms, int limit) {
+        Map<Long, Double> scores = null;
+        for (String q : queryTerms) {
+            Map<Long, Double> termScores = new HashMap<>();
+            for (Map<Long, Double> posting : postings.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+                posting.forEach((id, w) -> termScores.merge(id, w, Double::sum));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                for (Map.Entry<Long, Double> e : scores.entrySet()) e.setValue(e.getValue() + termScores.get(e.getKey()));
+            }
+            if (scores.isEmpty()) return List.of();
+        }
+        if (scores == null) return List.of();
+
+        List<QuestionSearchService.Hit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> hits.add(new QuestionSearchService.Hit(id, score)));
+        hits.sort((a, b) -> a.rank() != b.rank() ? Double.compare(b.rank(), a.rank()) : Long.compare(a.id(), b.id()));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    private void add(long id, String field, double weight, Set<String> terms) {
+        for (String term : QuestionSearchService.tokenize(field)) {
+            postings.computeIfAbsent(term, t -> new HashMap<>()).merge(id, weight, Double::sum);
+            terms.add(term);
+        }
+    }
+}
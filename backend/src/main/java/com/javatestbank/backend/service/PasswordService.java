@@ -0,0 +1,175 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.User;
+import com.javatestbank.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password hashing with a per-deployment cost. Hashing runs on a bounded pool:
+ * a login burst queues there (and is rejected once the queue is full) instead of
+ * tying up request threads. Legacy plaintext rows are re-hashed on their first
+ * successful login. Recent successful logins are remembered for a short time as a
+ * salted SHA-256, so a user who logs in again skips the BCrypt work.
+ */
+@Service
+public class PasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordService.class);
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+    private static final String ADMIN_KEY = "\u0000admin";
+
+    private final UserRepository userRepository;
+    private final BCryptPasswordEncoder encoder;
+    private final ExecutorService executor;
+    private final String adminHash;
+    private final long loginCacheTtlMillis;
+    private final int loginCacheMaxEntries;
+    private final byte[] cacheSalt = new byte[16];
+
+    // user key -> verified password digest; access-ordered for LRU eviction
+    private final LinkedHashMap<String, CachedLogin> recentLogins = new LinkedHashMap<>(256, 0.75f, true);
+
+    public PasswordService(UserRepository userRepository,
+                           @Value("${app.security.bcrypt-strength:10}") int strength,
+                           @Value("${app.security.hash-workers:0}") int workers,
+                           @Value("${app.security.hash-queue-capacity:200}") int queueCapacity,
+                           @Value("${app.security.login-cache-ttl-seconds:300}") long loginCacheTtlSeconds,
+                           @Value("${app.security.login-cache-max-entries:10000}") int loginCacheMaxEntries,
+                           @Value("${app.admin.password}") String adminPassword) {
+        this.userRepository = userRepository;
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.loginCacheTtlMillis = TimeUnit.SECONDS.toMillis(loginCacheTtlSeconds);
+        this.loginCacheMaxEntries = loginCacheMaxEntries;
+        new SecureRandom().nextBytes(cacheSalt);
+
+        // Hashing is CPU-bound: more threads than cores only adds queueing inside the scheduler
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        // The admin password may be configured already hashed; plaintext is hashed once here
+        this.adminHash = isHashed(adminPassword) ? adminPassword : encoder.encode(adminPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /** Hashes a new password. Fails with RejectedExecutionException when the hashing queue is full. */
+    public CompletableFuture<String> hash(String raw) {
+        return submit(() -> encoder.encode(raw));
+    }
+
+    /** Fails with RejectedExecutionException when the hashing queue is full. */
+    public CompletableFuture<Boolean> verifyAdmin(String raw) {
+        if (raw == null) return CompletableFuture.completedFuture(false);
+        if (isCached(ADMIN_KEY, raw, adminHash)) return CompletableFuture.completedFuture(true);
+        return submit(() -> {
+            boolean ok = encoder.matches(raw, adminHash);
+            if (ok) remember(ADMIN_KEY, raw, adminHash);
+            return ok;
+        });
+    }
+
+    /**
+     * Checks a login against the stored password, upgrading a plaintext row to a hash
+     * on success. Fails with RejectedExecutionException when the hashing queue is full.
+     */
+    public CompletableFuture<Boolean> verify(User user, String raw) {
+        String stored = user.getPassword();
+        if (raw == null || stored == null) return CompletableFuture.completedFuture(false);
+        String key = "u" + user.getId();
+        if (isCached(key, raw, stored)) return CompletableFuture.completedFuture(true);
+
+        return submit(() -> {
+            if (isHashed(stored)) {
+                boolean ok = encoder.matches(raw, stored);
+                if (ok) remember(key, raw, stored);
+                return ok;
+            }
+            // Legacy plaintext row
+            if (!MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8), raw.getBytes(StandardCharsets.UTF_8))) {
+                return false;
+            }
+            String upgraded = encoder.encode(raw);
+            user.setPassword(upgraded);
+            userRepository.save(user);
+            log.info("Upgraded plaintext password of user {} to bcrypt", user.getId());
+            remember(key, raw, upgraded);
+            return true;
+        });
+    }
+
+    // A full queue surfaces as a failed future, so callers handle it in one place
+    private <T> CompletableFuture<T> submit(java.util.function.Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && BCRYPT.matcher(stored).matches();
+    }
+
+    // A cached entry is only valid for the stored hash it was verified against
+    private boolean isCached(String key, String raw, String stored) {
+        CachedLogin cached;
+        synchronized (recentLogins) {
+            cached = recentLogins.get(key);
+        }
+        if (cached == null || System.currentTimeMillis() > cached.expiresAt || !cached.storedHash.equals(stored)) return false;
+        return MessageDigest.isEqual(cached.digest, digest(raw));
+    }
+
+    private void remember(String key, String raw, String stored) {
+        if (loginCacheTtlMillis <= 0) return;
+        CachedLogin entry = new CachedLogin(digest(raw), stored, System.currentTimeMillis() + loginCacheTtlMillis);
+        synchronized (recentLogins) {
+            recentLogins.put(key, entry);
+            if (recentLogins.size() > loginCacheMaxEntries) {
+                recentLogins.remove(recentLogins.keySet().iterator().next());
+            }
+        }
+    }
+
+    private byte[] digest(String raw) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(cacheSalt);
+            return sha.digest(raw.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedLogin(byte[] digest, String storedHash, long expiresAt) {}
+
+}
@@ -0,0 +1,198 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-through cache of {@link QuestionSnapshot}s for grading and quiz assembly.
+ * Questions rarely change, so hot paths read memory only; admin writes and
+ * generated explanations call {@link #invalidate}. Ids that do not exist are
+ * remembered briefly too, so repeated lookups of a bad id do not reach the database.
+ * <p>
+ * Reads take no lock: entries live in a ConcurrentHashMap and only stamp their last
+ * use. The size bound is approximate LRU: once the map overflows, one thread evicts
+ * everything older than a cutoff estimated from a sample of entries.
+ */
+@Service
+public class QuestionCache {
+
+    // Each eviction pass trims to this share of maxEntries, so passes are rare
+    private static final double EVICT_TO = 0.9;
+    private static final int EVICTION_SAMPLE = 1024;
+
+    private final QuestionRepository questionRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final int maxEntries;
+    private final long negativeTtlNanos;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // Bumped on every invalidation so a load that raced with it is not cached
+    private final AtomicLong generation = new AtomicLong();
+    // Logical clock for last-use stamps; cheaper and strictly ordered compared to nanoTime
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public QuestionCache(QuestionRepository questionRepository, PlatformTransactionManager transactionManager,
+                         @Value("${app.question-cache.max-entries:20000}") int maxEntries,
+                         @Value("${app.question-cache.negative-ttl-ms:5000}") long negativeTtlMillis) {
+        this.questionRepository = questionRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.negativeTtlNanos = Math.max(0, negativeTtlMillis) * 1_000_000;
+    }
+
+    /** Returns the question, or null if it does not exist. */
+    public QuestionSnapshot get(Long id) {
+        List<QuestionSnapshot> found = getAll(List.of(id));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Returns the existing questions among {@code ids}, in the given order. Misses are
+     * loaded together with one query (collections are batch-fetched).
+     */
+    public List<QuestionSnapshot> getAll(Collection<Long> ids) {
+        Map<Long, QuestionSnapshot> found = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        long now = System.nanoTime();
+        for (Long id : ids) {
+            Entry e = entries.get(id);
+            if (e == null || (e.snapshot == null && now - e.absentUntil >= 0)) {
+                missing.add(id);
+                continue;
+            }
+            e.lastUsed = clock.incrementAndGet();
+            if (e.snapshot != null) {
+                found.put(id, e.snapshot);
+                hits.incrementAndGet();
+            } else {
+                negativeHits.incrementAndGet();
+            }
+        }
+        misses.addAndGet(missing.size());
+
+        if (!missing.isEmpty()) {
+            long loadGeneration = generation.get();
+            List<QuestionSnapshot> loaded = readOnlyTx.execute(status -> {
+                List<QuestionSnapshot> snapshots = new ArrayList<>();
+                for (Question q : questionRepository.findAllById(missing)) snapshots.add(QuestionSnapshot.of(q));
+                return snapshots;
+            });
+            Map<Long, Entry> stored = new HashMap<>();
+            for (QuestionSnapshot s : loaded) {
+                found.put(s.getId(), s);
+                stored.put(s.getId(), new Entry(s, 0, clock.incrementAndGet()));
+            }
+            if (negativeTtlNanos > 0) {
+                long absentUntil = System.nanoTime() + negativeTtlNanos;
+                for (Long id : missing) {
+                    if (!found.containsKey(id)) stored.put(id, new Entry(null, absentUntil, clock.incrementAndGet()));
+                }
+            }
+            entries.putAll(stored);
+            // Put first, then check: an invalidation that ran during the load either removed
+            // these entries already or is visible here, so stale rows never stay cached
+            if (generation.get() != loadGeneration) stored.forEach(entries::remove);
+            if (entries.size() > maxEntries) evict();
+        }
+
+        List<QuestionSnapshot> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            QuestionSnapshot s = found.get(id);
+            if (s != null) result.add(s);
+        }
+        return result;
+    }
+
+    public void invalidate(Long id) {
+        generation.incrementAndGet();
+        entries.remove(id);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.get();
+        long m = misses.get();
+        return Map.of("hits", h, "negativeHits", negativeHits.get(), "misses", m,
+                "hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m),
+                "entries", entries.size(), "maxEntries", maxEntries, "evictions", evictions.get());
+    }
+
+    // One thread trims at a time; others keep serving and, at worst, overshoot the bound briefly
+    private void evict() {
+        if (!evictionLock.tryLock()) return;
+        try {
+            int size = entries.size();
+            int excess = size - (int) (maxEntries * EVICT_TO);
+            if (excess <= 0 || size <= maxEntries) return;
+
+            // Estimate the last-use stamp below which `excess` entries lie from a random sample
+            long[] sample = new long[Math.min(size, EVICTION_SAMPLE)];
+            int n = 0;
+            double keepChance = (double) sample.length / size;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (Entry e : entries.values()) {
+                if (n == sample.length) break;
+                if (random.nextDouble() < keepChance) sample[n++] = e.lastUsed;
+            }
+            if (n == 0) return;
+            Arrays.sort(sample, 0, n);
+            long cutoff = sample[Math.min(n - 1, (int) ((long) excess * n / size))];
+
+            long now = System.nanoTime();
+            int removed = 0;
+            var it = entries.values().iterator();
+            while (it.hasNext()) {
+                Entry e = it.next();
+                if (e.lastUsed <= cutoff || (e.snapshot == null && now - e.absentUntil >= 0)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            evictions.addAndGet(removed);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // snapshot == null marks an id known not to exist until absentUntil
+    private static final class Entry {
+        final QuestionSnapshot snapshot;
+        final long absentUntil;
+        volatile long lastUsed;
+
+        Entry(QuestionSnapshot snapshot, long absentUntil, long lastUsed) {
+            this.snapshot = snapshot;
+            this.absentUntil = absentUntil;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
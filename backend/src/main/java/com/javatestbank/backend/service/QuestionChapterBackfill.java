@@ -0,0 +1,51 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the {@code chapter} column for questions stored before it existed.
+ * New and edited questions derive it themselves on save.
+ */
+@Service
+public class QuestionChapterBackfill {
+
+    // Ids per UPDATE ... WHERE id IN (...); keeps the statement well below driver parameter limits
+    private static final int BATCH_SIZE = 500;
+
+    private final QuestionRepository questionRepository;
+
+    public QuestionChapterBackfill(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public int backfill() {
+        // Texts without a chapter prefix get the NO_CHAPTER sentinel, so they are not re-scanned next start
+        Map<Integer, List<Long>> idsByChapter = new HashMap<>();
+        for (Object[] row : questionRepository.findIdsAndTextsWithoutChapter()) {
+            Integer chapter = Question.parseChapter((String) row[1]);
+            idsByChapter.computeIfAbsent(chapter != null ? chapter : Question.NO_CHAPTER, c -> new ArrayList<>())
+                    .add(((Number) row[0]).longValue());
+        }
+
+        int updated = 0;
+        for (Map.Entry<Integer, List<Long>> e : idsByChapter.entrySet()) {
+            List<Long> ids = e.getValue();
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                updated += questionRepository.updateChapter(ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE)), e.getKey());
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,282 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Near-duplicate detection for imports. Each question is reduced to character
+ * shingles of its normalized text, options and code snippet, summarized by a MinHash
+ * signature and bucketed by an LSH band index, so a lookup only compares against
+ * the few questions sharing a band instead of the whole bank.
+ */
+@Service
+public class QuestionDuplicateDetector {
+
+    /** What to do with an incoming record that matches an existing one. */
+    public enum Mode { SKIP, MERGE, REPORT }
+
+    public enum Action { SKIPPED, MERGED, REPORTED }
+
+    /**
+     * A matched record. {@code duplicateOf} is the existing question id, or null when the
+     * match is an earlier record of the same upload ({@code duplicateOfRecord}).
+     */
+    public record Verdict(int position, Action action, Long duplicateOf, Integer duplicateOfRecord, double similarity) {
+
+        public Map<String, Object> toReport() {
+            Map<String, Object> m = new java.util.LinkedHashMap<>();
+            m.put("index", position);
+            m.put("status", action == Action.SKIPPED ? "duplicate" : action == Action.MERGED ? "merged" : "imported");
+            if (duplicateOf != null) m.put("duplicateOf", duplicateOf);
+            if (duplicateOfRecord != null) m.put("duplicateOfRecord", duplicateOfRecord);
+            m.put("similarity", Math.round(similarity * 100) / 100.0);
+            return m;
+        }
+    }
+
+    private static final int SHINGLE_LENGTH = 5;
+    // 16 bands x 8 rows: pairs above ~0.7 Jaccard almost always share a band
+    private static final int BANDS = 16;
+    private static final int ROWS = 8;
+    private static final int HASHES = BANDS * ROWS;
+    private static final long[] SEEDS_A = new long[HASHES];
+    private static final long[] SEEDS_B = new long[HASHES];
+
+    static {
+        Random random = new Random(0x5eed_cafeL); // Fixed, so signatures are comparable across restarts
+        for (int i = 0; i < HASHES; i++) {
+            SEEDS_A[i] = random.nextLong() | 1L;
+            SEEDS_B[i] = random.nextLong();
+        }
+    }
+
+    private final QuestionRepository questionRepository;
+    private final QuestionCache questionCache;
+    private final TransactionTemplate readOnlyTx;
+    private final double threshold;
+    private final Mode defaultMode;
+    private final LshIndex index = new LshIndex();
+
+    public QuestionDuplicateDetector(QuestionRepository questionRepository, QuestionCache questionCache,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.import.duplicates.threshold:0.85}") double threshold,
+                                     @Value("${app.import.duplicates.mode:skip}") String defaultMode) {
+        this.questionRepository = questionRepository;
+        this.questionCache = questionCache;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.threshold = threshold;
+        this.defaultMode = Mode.valueOf(defaultMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        readOnlyTx.executeWithoutResult(status -> {
+            // Only the fields the signature reads, as scalars: no managed entities or unrelated collections
+            Map<Long, List<String>> options = new HashMap<>();
+            for (Object[] row : questionRepository.findAllOptions()) {
+                options.computeIfAbsent(((Number) row[0]).longValue(), id -> new ArrayList<>()).add((String) row[1]);
+            }
+            synchronized (index) {
+                index.clear();
+                for (Object[] row : questionRepository.findSignatureFields()) {
+                    long id = ((Number) row[0]).longValue();
+                    index.put(id, signature((String) row[1], options.get(id), (String) row[2]));
+                }
+            }
+        });
+    }
+
+    /** Parses a request override such as {@code ?duplicates=merge}; null falls back to the configured mode. */
+    public Mode modeOf(String requested) {
+        return requested == null || requested.isBlank() ? defaultMode : Mode.valueOf(requested.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks each non-null question against the bank and against earlier records of the
+     * same upload. Returns a verdict for every match; callers drop SKIPPED positions. For
+     * MERGED verdicts the question is rewritten in place to update the existing row,
+     * keeping its answer and explanation where the record has none.
+     */
+    public List<Verdict> screen(List<Question> questions, Mode mode) {
+        List<Verdict> verdicts = new ArrayList<>();
+        LshIndex upload = new LshIndex();
+        Set<Long> mergeTargets = new HashSet<>();
+
+        for (int pos = 0; pos < questions.size(); pos++) {
+            Question q = questions.get(pos);
+            if (q == null) continue;
+            int[] sig = signature(q);
+
+            LshIndex.Match existing;
+            synchronized (index) {
+                existing = index.best(sig, threshold);
+            }
+            LshIndex.Match earlier = upload.best(sig, threshold);
+
+            Verdict v = null;
+            if (existing != null && (mode != Mode.MERGE || mergeTargets.add(existing.id()))) {
+                Action action = mode == Mode.SKIP ? Action.SKIPPED : mode == Mode.MERGE ? Action.MERGED : Action.REPORTED;
+                if (action == Action.MERGED) mergeInto(q, existing.id());
+                v = new Verdict(pos, action, existing.id(), null, existing.similarity());
+            } else if (earlier != null) {
+                // The upload repeats one of its own records: only the first copy is imported
+                Action action = mode == Mode.REPORT ? Action.REPORTED : Action.SKIPPED;
+                v = new Verdict(pos, action, null, (int) earlier.id(), earlier.similarity());
+            } else if (existing != null) {
+                // A second record merging into the same row
+                v = new Verdict(pos, Action.SKIPPED, existing.id(), null, existing.similarity());
+            }
+
+            if (v != null) verdicts.add(v);
+            if (v == null || v.action() != Action.SKIPPED) upload.put(pos, sig);
+        }
+        return verdicts;
+    }
+
+    /** Call after questions are saved (their ids must be assigned). */
+    public void add(Collection<Question> saved) {
+        synchronized (index) {
+            for (Question q : saved) index.put(q.getId(), signature(q));
+        }
+    }
+
+    public void remove(Long id) {
+        synchronized (index) {
+            index.remove(id);
+        }
+    }
+
+    private void mergeInto(Question q, Long existingId) {
+        q.setId(existingId);
+        QuestionSnapshot existing = questionCache.get(existingId);
+        if (existing == null) return;
+        if (q.getCorrectIndex() == null && (q.getCorrectIndices() == null || q.getCorrectIndices().isEmpty())) {
+            q.setCorrectIndex(existing.getCorrectIndex());
+            q.setCorrectIndices(new ArrayList<>(existing.getCorrectIndices()));
+            q.setAnswerExplanations(new ArrayList<>(existing.getAnswerExplanations()));
+        }
+        if (q.getExplanation() == null || q.getExplanation().isEmpty()) q.setExplanation(existing.getExplanation());
+        if (q.getCodeSnippet() == null || q.getCodeSnippet().isEmpty()) q.setCodeSnippet(existing.getCodeSnippet());
+    }
+
+    static int[] signature(Question q) {
+        return signature(q.getText(), q.getOptions(), q.getCodeSnippet());
+    }
+
+    static int[] signature(String text, List<String> options, String codeSnippet) {
+        StringBuilder sb = new StringBuilder(normalize(text));
+        if (options != null) {
+            for (String option : options) sb.append(" | ").append(normalize(option));
+        }
+        sb.append(" | ").append(normalize(codeSnippet));
+        String s = sb.toString();
+
+        int[] sig = new int[HASHES];
+        Arrays.fill(sig, Integer.MAX_VALUE);
+        int last = Math.max(1, s.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < last; start++) {
+            long h = mix(s.substring(start, Math.min(s.length(), start + SHINGLE_LENGTH)).hashCode());
+            for (int i = 0; i < HASHES; i++) {
+                int v = (int) ((SEEDS_A[i] * h + SEEDS_B[i]) >>> 33);
+                if (v < sig[i]) sig[i] = v;
+            }
+        }
+        return sig;
+    }
+
+    // Lower-case, drop punctuation and collapse whitespace so formatting changes do not matter
+    private static String normalize(String s) {
+        if (s == null) return "";
+        return s.toLowerCase(Locale.ROOT).replaceAll("[^\\p{Alnum}]+", " ").trim();
+    }
+
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    private static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < HASHES; i++) if (a[i] == b[i]) same++;
+        return (double) same / HASHES;
+    }
+
+    /** Band buckets: band hash -> ids whose signature has that band. Not thread-safe. */
+    private static final class LshIndex {
+
+        record Match(long id, double similarity) {}
+
+        private final Map<Long, int[]> signatures = new HashMap<>();
+        private final List<Map<Integer, List<Long>>> bands = new ArrayList<>(BANDS);
+
+        LshIndex() {
+            for (int b = 0; b < BANDS; b++) bands.add(new HashMap<>());
+        }
+
+        void put(long id, int[] sig) {
+            remove(id);
+            signatures.put(id, sig);
+            for (int b = 0; b < BANDS; b++) bands.get(b).computeIfAbsent(bandHash(sig, b), k -> new ArrayList<>()).add(id);
+        }
+
+        void remove(long id) {
+            int[] sig = signatures.remove(id);
+            if (sig == null) return;
+            for (int b = 0; b < BANDS; b++) {
+                int key = bandHash(sig, b);
+                List<Long> bucket = bands.get(b).get(key);
+                if (bucket == null) continue;
+                bucket.remove(id);
+                if (bucket.isEmpty()) bands.get(b).remove(key);
+            }
+        }
+
+        void clear() {
+            signatures.clear();
+            for (Map<Integer, List<Long>> band : bands) band.clear();
+        }
+
+        /** Most similar candidate at or above {@code threshold}, or null. */
+        Match best(int[] sig, double threshold) {
+            Set<Long> seen = new HashSet<>();
+            Match best = null;
+            for (int b = 0; b < BANDS; b++) {
+                List<Long> bucket = bands.get(b).get(bandHash(sig, b));
+                if (bucket == null) continue;
+                for (Long id : bucket) {
+                    if (!seen.add(id)) continue;
+                    double sim = similarity(sig, signatures.get(id));
+                    if (sim >= threshold && (best == null || sim > best.similarity())) best = new Match(id, sim);
+                }
+            }
+            return best;
+        }
+
+        private static int bandHash(int[] sig, int band) {
+            int h = band;
+            for (int r = band * ROWS; r < (band + 1) * ROWS; r++) h = 31 * h + sig[r];
+            return h;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.Question;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills in missing correct answers and explanations for a batch of questions by
+ * calling the AI provider in parallel. Concurrency is capped, calls are paced by a
+ * token bucket matching the provider quota, and 429/5xx/IO failures are retried
+ * with exponential backoff. Each question gets its own outcome; nothing is guessed.
+ */
+@Service
+public class QuestionEnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionEnrichmentService.class);
+
+    private final AIService aiService;
+    private final ExecutorService executor;
+    private final TokenBucket rateLimiter;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public QuestionEnrichmentService(AIService aiService,
+                                     @Value("${ai.enrichment.concurrency:4}") int concurrency,
+                                     @Value("${ai.enrichment.requests-per-minute:30}") int requestsPerMinute,
+                                     @Value("${ai.enrichment.max-attempts:4}") int maxAttempts,
+                                     @Value("${ai.enrichment.backoff-millis:500}") long baseBackoffMillis,
+                                     @Value("${ai.enrichment.max-backoff-millis:15000}") long maxBackoffMillis) {
+        this.aiService = aiService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "enrichment-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.rateLimiter = new TokenBucket(requestsPerMinute / 60.0, Math.max(1, concurrency));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /** Outcome for the question at {@code index} of the submitted batch. */
+    public record Result(int index, boolean success, String error) {
+        static Result ok(int index) { return new Result(index, true, null); }
+        static Result failed(int index, String error) { return new Result(index, false, error); }
+    }
+
+    /**
+     * Enriches the questions in place and returns one result per question, in order.
+     * A question fails only when no correct answer is known and the AI could not supply one;
+     * a missing explanation alone is left for {@link ExplanationService} to fill later.
+     */
+    public List<Result> enrichAll(List<Question> questions) {
+        List<CompletableFuture<Result>> futures = new ArrayList<>(questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            Question q = questions.get(i);
+            int index = i;
+            if (!needsAnalysis(q)) {
+                futures.add(CompletableFuture.completedFuture(validate(index, q, null)));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> enrich(index, q), executor));
+            }
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    // Logic: IF manual answer AND manual explanation -> SKIP AI.
+    private static boolean needsAnalysis(Question q) {
+        if (q.getOptions() == null || q.getOptions().isEmpty()) return false;
+        boolean isFullyManual = resolvedCorrectIndex(q) != null &&
+                                q.getExplanation() != null &&
+                                !q.getExplanation().isEmpty();
+        return !isFullyManual;
+    }
+
+    private Result enrich(int index, Question q) {
+        Integer known = resolvedCorrectIndex(q);
+        try {
+            Map<String, Object> analysis = analyzeWithRetry(q, known);
+            if (q.getCorrectIndex() == null && known == null) {
+                int aiIndex = (Integer) analysis.get("correctIndex");
+                if (aiIndex < 0 || aiIndex >= q.getOptions().size()) {
+                    return Result.failed(index, "AI picked option " + aiIndex + ", which does not exist");
+                }
+                q.setCorrectIndex(aiIndex);
+            }
+            if (q.getExplanation() == null || q.getExplanation().isEmpty()) {
+                String aiExpl = (String) analysis.get("explanation");
+                if (aiExpl != null && aiExpl.length() > 1995) aiExpl = aiExpl.substring(0, 1995) + "...";
+                q.setExplanation(aiExpl);
+            }
+            return validate(index, q, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return validate(index, q, "interrupted");
+        } catch (Exception e) {
+            log.warn("AI analysis failed for question #{}: {}", index, e.getMessage());
+            return validate(index, q, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> analyzeWithRetry(Question q, Integer known) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                return aiService.analyzeQuestionOrThrow(q.getText(), q.getCodeSnippet(), q.getOptions(), known);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isRetryable(e)) throw e;
+                Thread.sleep(backoffMillis(attempt, e));
+            }
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof ResourceAccessException || e instanceof BulkheadFullException || e instanceof CircuitOpenException) return true;
+        if (e instanceof RestClientResponseException r) {
+            int status = r.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return false;
+    }
+
+    private long backoffMillis(int attempt, RuntimeException e) {
+        // Honour the provider's Retry-After (seconds) when it sends one
+        if (e instanceof RestClientResponseException r && r.getResponseHeaders() != null) {
+            String retryAfter = r.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+            if (retryAfter != null) {
+                try {
+                    return Math.min(maxBackoffMillis, Long.parseLong(retryAfter.trim()) * 1000);
+                } catch (NumberFormatException ignored) {
+                    // HTTP-date form; fall back to exponential backoff
+                }
+            }
+        }
+        long exp = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return exp / 2 + ThreadLocalRandom.current().nextLong(exp / 2 + 1);
+    }
+
+    // Multi-answer imports carry correctIndices; the legacy correctIndex mirrors the first one
+    private static Integer resolvedCorrectIndex(Question q) {
+        if (q.getCorrectIndex() != null) return q.getCorrectIndex();
+        if (q.getCorrectIndices() != null && !q.getCorrectIndices().isEmpty()) return q.getCorrectIndices().get(0);
+        return null;
+    }
+
+    private static Result validate(int index, Question q, String aiError) {
+        Integer resolved = resolvedCorrectIndex(q);
+        if (resolved == null) {
+            return Result.failed(index, aiError != null
+                    ? "No correct answer marked and AI analysis failed: " + aiError
+                    : "No correct answer marked");
+        }
+        q.setCorrectIndex(resolved);
+        return Result.ok(index);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
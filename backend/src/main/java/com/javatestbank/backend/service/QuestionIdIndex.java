@@ -0,0 +1,186 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory index of question ids used to sample random quizzes without asking
+ * the database to sort the whole table. Ids are kept as primitive arrays, both
+ * overall and partitioned by the materialized {@code chapter} column.
+ */
+@Service
+public class QuestionIdIndex {
+
+    private static final long[] NO_IDS = new long[0];
+    private static final int NO_CHAPTER = Integer.MIN_VALUE;
+    // Rejection sampling gives up after this many draws per requested id and tops up uniformly
+    private static final int MAX_ATTEMPTS_PER_PICK = 64;
+
+    /** Relative weight of an id in {@link #sampleWeighted}; {@code chapter} may be null. */
+    @FunctionalInterface
+    public interface Weigher {
+        double weight(long id, Integer chapter);
+    }
+
+    private final QuestionRepository questionRepository;
+
+    // Replaced wholesale on refresh, so readers never see a half-built index
+    private volatile Snapshot snapshot = new Snapshot(NO_IDS, new int[0], Map.of());
+
+    public QuestionIdIndex(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+
+    // Runs after QuestionChapterBackfill so legacy rows land in their partition
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(10)
+    public void refresh() {
+        List<Object[]> rows = questionRepository.findAllIdsAndChapters();
+
+        long[] all = new long[rows.size()];
+        int[] allChapters = new int[rows.size()];
+        Map<Integer, List<Long>> grouped = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            long id = ((Number) row[0]).longValue();
+            all[i] = id;
+            Integer chapter = (Integer) row[1];
+            allChapters[i] = chapter != null ? chapter : NO_CHAPTER;
+            if (chapter != null) grouped.computeIfAbsent(chapter, c -> new ArrayList<>()).add(id);
+        }
+
+        Map<Integer, long[]> byChapter = new HashMap<>();
+        grouped.forEach((chapter, ids) -> byChapter.put(chapter, ids.stream().mapToLong(Long::longValue).toArray()));
+        snapshot = new Snapshot(all, allChapters, byChapter);
+    }
+
+    public int size() {
+        return snapshot.all.length;
+    }
+
+    /**
+     * Draws up to {@code count} distinct ids, restricted to the given chapters when
+     * any are supplied. Runs in O(count) regardless of bank size.
+     */
+    public long[] sample(int count, Collection<Integer> chapters) {
+        Snapshot current = snapshot;
+        if (chapters == null || chapters.isEmpty()) {
+            return sample(new long[][] { current.all }, count);
+        }
+
+        if (current.all.length == 0) {
+            // Not built yet (or an empty bank): the chapter column index answers directly
+            long[] ids = questionRepository.findIdsByChapterIn(chapters).stream().mapToLong(Long::longValue).toArray();
+            return sample(new long[][] { ids }, count);
+        }
+
+        List<long[]> partitions = new ArrayList<>();
+        for (Integer chapter : new LinkedHashSet<>(chapters)) {
+            long[] ids = current.byChapter.get(chapter);
+            if (ids != null) partitions.add(ids);
+        }
+        return sample(partitions.toArray(new long[0][]), count);
+    }
+
+    /**
+     * Draws up to {@code count} distinct ids with probability proportional to
+     * {@code weigher}, whose values must lie in {@code [0, maxWeight]}. Uses rejection
+     * sampling, so the cost depends on {@code count} and the weight spread, not on
+     * bank size. If the weights are too skewed to fill the quiz within the attempt
+     * budget, the rest is drawn uniformly.
+     */
+    public long[] sampleWeighted(int count, Collection<Integer> chapters, Weigher weigher, double maxWeight) {
+        Snapshot current = snapshot;
+        long[][] partitions;
+        int[] partitionChapter;
+        if (chapters == null || chapters.isEmpty()) {
+            partitions = new long[][] { current.all };
+            partitionChapter = new int[] { NO_CHAPTER }; // Looked up per id in allChapters
+        } else {
+            List<long[]> found = new ArrayList<>();
+            List<Integer> foundChapters = new ArrayList<>();
+            for (Integer chapter : new LinkedHashSet<>(chapters)) {
+                long[] ids = current.byChapter.get(chapter);
+                if (ids == null) continue;
+                found.add(ids);
+                foundChapters.add(chapter);
+            }
+            partitions = found.toArray(new long[0][]);
+            partitionChapter = foundChapters.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int n = 0;
+        for (long[] p : partitions) n += p.length;
+        int k = Math.max(0, Math.min(count, n));
+        if (k == 0) return NO_IDS;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LinkedHashSet<Long> picked = new LinkedHashSet<>(k * 2);
+        int attempts = k * MAX_ATTEMPTS_PER_PICK;
+        while (picked.size() < k && attempts-- > 0) {
+            int position = random.nextInt(n);
+            int p = 0;
+            while (position >= partitions[p].length) position -= partitions[p++].length;
+            long id = partitions[p][position];
+            if (picked.contains(id)) continue;
+
+            int chapter = partitionChapter[p] != NO_CHAPTER ? partitionChapter[p] : current.allChapters[position];
+            double w = weigher.weight(id, chapter != NO_CHAPTER ? chapter : null);
+            if (random.nextDouble() * maxWeight < w) picked.add(id);
+        }
+        if (picked.size() < k) {
+            // k distinct draws overlap the picked ids at most picked.size() times, so they
+            // always cover the shortfall; drawing all n would make the top-up O(bank)
+            for (long id : sample(partitions, k)) {
+                if (picked.size() >= k) break;
+                picked.add(id);
+            }
+        }
+        return picked.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Partial Fisher–Yates shuffle over the concatenation of {@code partitions}.
+     * Only the swapped positions are tracked, so the source arrays are never
+     * copied or modified.
+     */
+    private static long[] sample(long[][] partitions, int count) {
+        int n = 0;
+        for (long[] p : partitions) n += p.length;
+        int k = Math.max(0, Math.min(count, n));
+        long[] result = new long[k];
+        if (k == 0) return result;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<Integer, Integer> swapped = new HashMap<>(k * 2);
+        for (int i = 0; i < k; i++) {
+            int j = random.nextInt(i, n);
+            int picked = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            result[i] = idAt(partitions, picked);
+        }
+        return result;
+    }
+
+    private static long idAt(long[][] partitions, int position) {
+        for (long[] p : partitions) {
+            if (position < p.length) return p[position];
+            position -= p.length;
+        }
+        throw new IndexOutOfBoundsException("Position outside of sampled partitions");
+    }
+
+    // allChapters is aligned with all; NO_CHAPTER marks rows without a chapter
+    private record Snapshot(long[] all, int[] allChapters, Map<Integer, long[]> byChapter) {}
+}
@@ -0,0 +1,280 @@
+package com.javatestbank.backend.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Turns import records into questions. Besides the per-record mapping used by the
+ * list-bound import endpoint, it can consume a JSON array or NDJSON stream
+ * incrementally, committing every {@code batchSize} records, so memory use does
+ * not depend on upload size and a late failure does not lose earlier batches.
+ */
+@Service
+public class QuestionImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ObjectMapper objectMapper;
+    private final QuestionRepository questionRepository;
+    private final QuestionEnrichmentService enrichmentService;
+    private final QuestionSearchService searchService;
+    private final QuestionDuplicateDetector duplicateDetector;
+    private final QuestionCache questionCache;
+    private final int batchSize;
+    private final Counter importedRecords;
+    private final Counter failedRecords;
+    private final Counter duplicateRecords;
+    private final Timer batchTimer;
+
+    public QuestionImportService(ObjectMapper objectMapper, QuestionRepository questionRepository,
+                                 QuestionEnrichmentService enrichmentService, QuestionSearchService searchService,
+                                 QuestionDuplicateDetector duplicateDetector, QuestionCache questionCache,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.import.batch-size:100}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.questionRepository = questionRepository;
+        this.enrichmentService = enrichmentService;
+        this.searchService = searchService;
+        this.duplicateDetector = duplicateDetector;
+        this.questionCache = questionCache;
+        this.batchSize = Math.max(1, batchSize);
+        this.importedRecords = Counter.builder("app.import.records").tag("outcome", "imported").register(meterRegistry);
+        this.failedRecords = Counter.builder("app.import.records").tag("outcome", "failed").register(meterRegistry);
+        this.duplicateRecords = Counter.builder("app.import.records").tag("outcome", "duplicate").register(meterRegistry);
+        this.batchTimer = Timer.builder("app.import.batch")
+                .description("Screening, enrichment and commit of one streaming import batch")
+                .register(meterRegistry);
+    }
+
+    /** Counts import outcomes for the throughput metrics; the list-bound endpoints report here too. */
+    public void recordOutcome(int imported, int failed, int duplicates) {
+        importedRecords.increment(imported);
+        failedRecords.increment(failed);
+        duplicateRecords.increment(duplicates);
+    }
+
+    /**
+     * Summary of a streaming import; {@code errors} and {@code duplicateRecords} are
+     * capped at the first 100 entries each.
+     */
+    public record StreamReport(String message, int processed, int imported, int failed, int duplicates, int batches,
+                               long durationMillis, String aborted, List<Map<String, Object>> errors,
+                               List<Map<String, Object>> duplicateRecords) {}
+
+    public StreamReport importStream(InputStream body, QuestionDuplicateDetector.Mode duplicates) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<Question> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndex = new ArrayList<>(batchSize);
+        String aborted = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            // A top-level array is unwrapped; otherwise the body is a sequence of root objects (NDJSON)
+            boolean inArray = token == JsonToken.START_ARRAY;
+            if (inArray) token = parser.nextToken();
+
+            int index = 0;
+            while (token != null && token != JsonToken.END_ARRAY) {
+                // Each record is bound on its own, so a bad record only costs itself
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    Question q = toQuestion(objectMapper.treeToValue(node, QuestionImportDTO.class));
+                    batch.add(q);
+                    batchIndex.add(index);
+                } catch (Exception e) {
+                    progress.fail(index, e.getMessage());
+                }
+                progress.processed++;
+                index++;
+
+                if (batch.size() >= batchSize) flush(batch, batchIndex, duplicates, progress);
+                token = parser.nextToken();
+            }
+        } catch (Exception e) {
+            // Malformed JSON or a failed batch: what was committed stays committed
+            aborted = "Stopped after record " + progress.processed + ": " + e.getMessage();
+            log.warn("Streaming import aborted: {}", e.getMessage());
+        }
+
+        try {
+            flush(batch, batchIndex, duplicates, progress);
+        } catch (Exception e) {
+            aborted = "Database Save Failed: " + e.getMessage();
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        recordOutcome(progress.imported, progress.failed, progress.duplicates);
+        log.info("import=stream processed={} imported={} failed={} duplicates={} batches={} durationMs={}",
+                progress.processed, progress.imported, progress.failed, progress.duplicates, progress.batches, durationMillis);
+        String message = "Imported " + progress.imported + " of " + progress.processed + " questions"
+                + (progress.failed > 0 ? " (" + progress.failed + " failed)" : "")
+                + (progress.duplicates > 0 ? " (" + progress.duplicates + " duplicates skipped)" : "");
+        return new StreamReport(message, progress.processed, progress.imported, progress.failed, progress.duplicates,
+                progress.batches, durationMillis, aborted, progress.errors, progress.duplicateRecords);
+    }
+
+    private void flush(List<Question> batch, List<Integer> batchIndex, QuestionDuplicateDetector.Mode duplicates,
+                       Progress progress) {
+        if (batch.isEmpty()) return;
+        try {
+            batchTimer.record(() -> flushBatch(batch, batchIndex, duplicates, progress));
+        } finally {
+            // A failed batch is reported by flushBatch; it must not be screened and saved again by the trailing flush
+            batch.clear();
+            batchIndex.clear();
+        }
+    }
+
+    private void flushBatch(List<Question> batch, List<Integer> batchIndex, QuestionDuplicateDetector.Mode duplicates,
+                            Progress progress) {
+        // Duplicates are screened per batch (and against everything committed before it), ahead of any AI call
+        List<Question> candidates = new ArrayList<>(batch);
+        for (QuestionDuplicateDetector.Verdict v : duplicateDetector.screen(batch, duplicates)) {
+            if (v.action() == QuestionDuplicateDetector.Action.SKIPPED) candidates.set(v.position(), null);
+            progress.duplicate(v, batchIndex);
+        }
+        List<Question> toEnrich = new ArrayList<>(batch.size());
+        List<Integer> toEnrichIndex = new ArrayList<>(batch.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i) == null) continue;
+            toEnrich.add(candidates.get(i));
+            toEnrichIndex.add(batchIndex.get(i));
+        }
+
+        List<Question> toSave = new ArrayList<>(toEnrich.size());
+        List<Integer> toSaveIndex = new ArrayList<>(toEnrich.size());
+        for (QuestionEnrichmentService.Result r : enrichmentService.enrichAll(toEnrich)) {
+            if (r.success()) {
+                toSave.add(toEnrich.get(r.index()));
+                toSaveIndex.add(toEnrichIndex.get(r.index()));
+            } else {
+                progress.fail(toEnrichIndex.get(r.index()), r.error());
+            }
+        }
+        if (!toSave.isEmpty()) {
+            List<Question> saved;
+            try {
+                saved = questionRepository.saveAll(toSave);
+            } catch (RuntimeException e) {
+                toSaveIndex.forEach(i -> progress.fail(i, "Database Save Failed: " + e.getMessage()));
+                throw e;
+            }
+            saved.forEach(q -> questionCache.invalidate(q.getId())); // Merged records update cached rows
+            searchService.index(saved);
+            duplicateDetector.add(saved);
+            progress.imported += toSave.size();
+        }
+        progress.batches++;
+        log.info("Import batch {} committed: {} saved, {} processed so far", progress.batches, toSave.size(), progress.processed);
+    }
+
+    /**
+     * Maps one import record onto a Question, truncating text fields to their column
+     * sizes. Throws IllegalArgumentException for records without question text.
+     */
+    public Question toQuestion(QuestionImportDTO dto) {
+        Question q = new Question();
+        String text = dto.question;
+        if (text != null && text.length() > 995) text = text.substring(0, 995) + "...";
+        q.setText(text);
+
+        String code = dto.codeSnippet;
+        if (code != null && code.length() > 4995) code = code.substring(0, 4995) + "\n... (truncated)";
+        q.setCodeSnippet(code);
+
+        if (q.getText() == null || q.getText().trim().isEmpty()) {
+            throw new IllegalArgumentException("Question text is empty");
+        }
+
+        if (dto.answers != null) {
+            List<String> options = dto.answers.stream().map(a -> a.answer).collect(Collectors.toList());
+            q.setOptions(options);
+
+            List<Integer> indices = new java.util.ArrayList<>();
+            List<String> explanations = new java.util.ArrayList<>();
+
+            for (int i = 0; i < dto.answers.size(); i++) {
+                AnswerImportDTO ans = dto.answers.get(i);
+                String rawExpl = ans.explanation != null ? ans.explanation : "";
+                if (rawExpl.length() > 995) rawExpl = rawExpl.substring(0, 995) + "...";
+                explanations.add(rawExpl);
+
+                if (ans.is_right) {
+                    q.setCorrectIndex(i);
+                    indices.add(i);
+                    if (q.getExplanation() == null || q.getExplanation().isEmpty()) {
+                        if (ans.explanation != null && !ans.explanation.isEmpty()) {
+                            String combinedExpl = ans.explanation;
+                            if (combinedExpl.length() > 1995) combinedExpl = combinedExpl.substring(0, 1995) + "...";
+                            q.setExplanation(combinedExpl);
+                        }
+                    }
+                }
+            }
+            q.setCorrectIndices(indices);
+            q.setAnswerExplanations(explanations);
+        }
+        return q;
+    }
+
+    private static final class Progress {
+        int processed;
+        int imported;
+        int failed;
+        int duplicates;
+        int batches;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+        final List<Map<String, Object>> duplicateRecords = new ArrayList<>();
+
+        // Verdict positions are batch-relative; the report uses positions in the whole upload
+        void duplicate(QuestionDuplicateDetector.Verdict v, List<Integer> batchIndex) {
+            if (v.action() == QuestionDuplicateDetector.Action.SKIPPED) duplicates++;
+            if (duplicateRecords.size() >= MAX_REPORTED_ERRORS) return;
+            Map<String, Object> entry = v.toReport();
+            entry.put("index", batchIndex.get(v.position()));
+            if (v.duplicateOfRecord() != null) entry.put("duplicateOfRecord", batchIndex.get(v.duplicateOfRecord()));
+            duplicateRecords.add(entry);
+        }
+
+        void fail(int index, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(Map.of("index", index, "error", String.valueOf(error)));
+            }
+        }
+    }
+
+    // DTOs for Import
+    public static class QuestionImportDTO {
+        public String question;
+        public String codeSnippet;
+        public List<AnswerImportDTO> answers;
+    }
+
+    public static class AnswerImportDTO {
+        public String answer;
+        @JsonProperty("is_right")
+        public boolean is_right;
+        public String explanation;
+    }
+}
@@ -0,0 +1,136 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSummary;
+import com.javatestbank.backend.repository.QuestionFullTextRepository;
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked, prefix-matching question search. Uses the PostgreSQL tsvector/GIN index when
+ * available and falls back to {@link InMemoryQuestionSearchIndex} otherwise. Writers call
+ * {@link #index} and {@link #remove} so either backend stays current.
+ */
+@Service
+public class QuestionSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchService.class);
+    private static final int MAX_QUERY_TERMS = 10;
+
+    // PostgreSQL's English stop words. to_tsquery('english') drops them, so a query made only
+    // of stop words finds nothing there; they are dropped for the in-memory index too.
+    static final Set<String> STOP_WORDS = Set.of(
+            "i", "me", "my", "myself", "we", "our", "ours", "ourselves", "you", "your", "yours", "yourself",
+            "yourselves", "he", "him", "his", "himself", "she", "her", "hers", "herself", "it", "its", "itself",
+            "they", "them", "their", "theirs", "themselves", "what", "which", "who", "whom", "this", "that",
+            "these", "those", "am", "is", "are", "was", "were", "be", "been", "being", "have", "has", "had",
+            "having", "do", "does", "did", "doing", "a", "an", "the", "and", "but", "if", "or", "because", "as",
+            "until", "while", "of", "at", "by", "for", "with", "about", "against", "between", "into", "through",
+            "during", "before", "after", "above", "below", "to", "from", "up", "down", "in", "out", "on", "off",
+            "over", "under", "again", "further", "then", "once", "here", "there", "when", "where", "why", "how",
+            "all", "any", "both", "each", "few", "more", "most", "other", "some", "such", "no", "nor", "not",
+            "only", "own", "same", "so", "than", "too", "very", "s", "t", "can", "will", "just", "don", "should",
+            "now");
+
+    /** A matching question id and its relevance (higher is better). */
+    public record Hit(long id, double rank) {}
+
+    /** A search result: the question's list row plus its rank. */
+    public record Result(QuestionSummary question, double rank) {}
+
+    private final QuestionRepository questionRepository;
+    private final QuestionFullTextRepository fullTextRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final InMemoryQuestionSearchIndex memoryIndex = new InMemoryQuestionSearchIndex();
+
+    public QuestionSearchService(QuestionRepository questionRepository, QuestionFullTextRepository fullTextRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.questionRepository = questionRepository;
+        this.fullTextRepository = fullTextRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (fullTextRepository.isSupported()) {
+            fullTextRepository.ensureSchema();
+            int filled = fullTextRepository.backfill();
+            if (filled > 0) log.info("Computed search vectors for {} questions", filled);
+            return;
+        }
+        readOnlyTx.executeWithoutResult(status -> {
+            memoryIndex.clear();
+            for (Question q : questionRepository.findAll()) memoryIndex.put(q.getId(), q.getText(), q.getOptions(), q.getCodeSnippet());
+        });
+    }
+
+    /** Call after questions are saved (their ids must be assigned). */
+    public void index(Collection<Question> questions) {
+        if (questions.isEmpty()) return;
+        if (fullTextRepository.isSupported()) {
+            fullTextRepository.refresh(questions.stream().map(Question::getId).collect(Collectors.toList()));
+        } else {
+            for (Question q : questions) memoryIndex.put(q.getId(), q.getText(), q.getOptions(), q.getCodeSnippet());
+        }
+    }
+
+    public void remove(Long id) {
+        if (!fullTextRepository.isSupported()) memoryIndex.remove(id);
+    }
+
+    /** Ranked matches for every non-stop-word term of {@code query}; none if only stop words remain. */
+    public List<Result> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        terms.removeAll(STOP_WORDS);
+        if (terms.isEmpty()) return List.of();
+        if (terms.size() > MAX_QUERY_TERMS) terms = terms.subList(0, MAX_QUERY_TERMS);
+
+        List<Hit> hits;
+        if (fullTextRepository.isSupported()) {
+            // Terms are alphanumeric only (see tokenize), so they are safe inside to_tsquery
+            String tsQuery = terms.stream().map(t -> t + ":*").collect(Collectors.joining(" & "));
+            hits = fullTextRepository.search(tsQuery, limit).stream()
+                    .map(h -> new Hit(h.id(), h.rank())).collect(Collectors.toList());
+        } else {
+            hits = memoryIndex.search(terms, limit);
+        }
+        if (hits.isEmpty()) return List.of();
+
+        Map<Long, QuestionSummary> summaries = questionRepository
+                .findSummariesByIdIn(hits.stream().map(Hit::id).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(QuestionSummary::id, Function.identity()));
+        List<Result> results = new ArrayList<>(hits.size());
+        for (Hit h : hits) {
+            QuestionSummary s = summaries.get(h.id());
+            if (s != null) results.add(new Result(s, h.rank()));
+        }
+        return results;
+    }
+
+    /** Lower-cased alphanumeric tokens, in order, without duplicates. */
+    static Set<String> tokenize(String s) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (s == null) return terms;
+        for (String t : s.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+            if (!t.isEmpty()) terms.add(t);
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,92 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.repository.UserAnswerRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory answer distribution per question: how many answers were recorded and
+ * how often each option was picked. Built from one aggregate query at startup and
+ * kept current by {@link #record} as answers are saved, so reads never hit the database.
+ */
+@Service
+public class QuestionStatsStore {
+
+    // Sentinel option index used by the aggregate query for per-question totals
+    public static final int TOTAL_ROW = -1;
+    // Upper bound on tracked option indices; check-answer validates against the question, this guards the array
+    static final int MAX_OPTIONS = 64;
+
+    private final UserAnswerRepository userAnswerRepository;
+    private final Map<Long, Counters> stats = new ConcurrentHashMap<>();
+
+    public QuestionStatsStore(UserAnswerRepository userAnswerRepository) {
+        this.userAnswerRepository = userAnswerRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Counters> fresh = new ConcurrentHashMap<>();
+        for (Object[] row : userAnswerRepository.aggregateOptionCounts()) {
+            long questionId = ((Number) row[0]).longValue();
+            int option = ((Number) row[1]).intValue();
+            long count = ((Number) row[2]).longValue();
+
+            Counters c = fresh.computeIfAbsent(questionId, id -> new Counters());
+            if (option == TOTAL_ROW) c.total += count;
+            else if (option >= 0) c.add(option, count);
+        }
+        stats.clear();
+        stats.putAll(fresh);
+    }
+
+    /**
+     * Applies one saved answer. {@code previous} is the selection the answer held
+     * before this save, or null when the answer is new.
+     */
+    public void record(Long questionId, List<Integer> previous, List<Integer> current) {
+        Counters c = stats.computeIfAbsent(questionId, id -> new Counters());
+        synchronized (c) {
+            if (previous == null) {
+                c.total++;
+            } else {
+                for (Integer option : previous) c.add(option, -1);
+            }
+            for (Integer option : current) c.add(option, 1);
+        }
+    }
+
+    public void evict(Long questionId) {
+        stats.remove(questionId);
+    }
+
+    public Map<String, Object> snapshot(Long questionId) {
+        Counters c = stats.get(questionId);
+        if (c == null) return Map.of("total", 0);
+
+        synchronized (c) {
+            if (c.total == 0) return Map.of("total", 0);
+            Map<Integer, Long> counts = new LinkedHashMap<>();
+            for (int i = 0; i < c.options.length; i++) counts.put(i, c.options[i]);
+            return Map.of("total", c.total, "counts", counts);
+        }
+    }
+
+    private static final class Counters {
+        long total;
+        long[] options = new long[4];
+
+        void add(Integer option, long delta) {
+            if (option == null || option < 0 || option >= MAX_OPTIONS) return;
+            if (option >= options.length) options = Arrays.copyOf(options, option + 1);
+            options[option] += delta;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.javatestbank.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless session tokens: {@code base64url(payload).base64url(HMAC-SHA256)}
+ * where the payload is {@code userId|admin|expiresAtEpochSecond|username}. Verification
+ * needs only the secret, so authenticated requests cost no database lookup.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /** The authenticated caller; {@code userId} is null for the configured admin account. */
+    public record Principal(Long userId, String username, boolean admin) {}
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public TokenService(@Value("${app.security.token-secret:}") String secret,
+                        @Value("${app.security.token-ttl-hours:12}") long ttlHours) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // Fine for a single dev instance; every restart logs everyone out
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("app.security.token-secret is not set; using a random key, tokens will not survive a restart");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) throw new IllegalStateException("app.security.token-secret must be at least 32 bytes");
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    public String issue(Principal principal) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttl.getSeconds();
+        String payload = (principal.userId() != null ? principal.userId() : "") + "|"
+                + (principal.admin() ? "1" : "0") + "|" + expiresAt + "|" + principal.username();
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    /** Empty for malformed, tampered or expired tokens. */
+    public Optional<Principal> verify(String token) {
+        if (token == null) return Optional.empty();
+        int dot = token.indexOf('.');
+        if (dot <= 0) return Optional.empty();
+        try {
+            String encoded = token.substring(0, dot);
+            if (!MessageDigest.isEqual(sign(encoded), DECODER.decode(token.substring(dot + 1)))) return Optional.empty();
+
+            String[] parts = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) return Optional.empty();
+            if (Long.parseLong(parts[2]) < System.currentTimeMillis() / 1000) return Optional.empty();
+            Long userId = parts[0].isEmpty() ? null : Long.valueOf(parts[0]);
+            return Optional.of(new Principal(userId, parts[3], "1".equals(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty(); // Bad base64 or number
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            // Mac instances are not thread-safe and cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.repository.UserAnswerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user answer history for adaptive quizzes: bitsets of answered and correctly
+ * answered question ids plus per-chapter tallies. A user's state is loaded with one
+ * query on their first adaptive quiz, topped up with the answers still waiting in the
+ * {@link AnswerWriteBuffer}, then kept current by {@link #record}, so
+ * assembling a quiz touches no database. Bitsets are indexed by question id, so a
+ * user costs about {@code maxQuestionId / 4} bytes; the LRU bound caps the total.
+ */
+@Service
+public class UserMasteryStore {
+
+    // Sampling weights: missed questions first, then unseen ones, mastered ones rarely
+    static final double WRONG_WEIGHT = 4.0;
+    static final double UNSEEN_WEIGHT = 3.0;
+    static final double MASTERED_WEIGHT = 0.5;
+    // Chapter factor is 1 + (1 - accuracy), so weak chapters count up to twice as much
+    static final double MAX_WEIGHT = WRONG_WEIGHT * 2.0;
+
+    private final UserAnswerRepository userAnswerRepository;
+    private final QuestionIdIndex questionIdIndex;
+    private final AnswerWriteBuffer answerWriteBuffer;
+    private final QuestionCache questionCache;
+    private final int maxUsers;
+
+    private final LinkedHashMap<Long, Mastery> users = new LinkedHashMap<>(256, 0.75f, true);
+
+    public UserMasteryStore(UserAnswerRepository userAnswerRepository, QuestionIdIndex questionIdIndex,
+                            AnswerWriteBuffer answerWriteBuffer, QuestionCache questionCache,
+                            @Value("${app.adaptive.max-users:2000}") int maxUsers) {
+        this.userAnswerRepository = userAnswerRepository;
+        this.questionIdIndex = questionIdIndex;
+        this.answerWriteBuffer = answerWriteBuffer;
+        this.questionCache = questionCache;
+        this.maxUsers = Math.max(1, maxUsers);
+    }
+
+    /** Draws a quiz weighted toward the user's missed and unseen questions and weak chapters. */
+    public long[] sample(Long userId, int count, Collection<Integer> chapters) {
+        Mastery m = load(userId);
+        synchronized (m) {
+            return questionIdIndex.sampleWeighted(count, chapters, m::weight, MAX_WEIGHT);
+        }
+    }
+
+    /** Applies a graded answer; users not loaded yet pick it up when they are. */
+    public void record(Long userId, long questionId, Integer chapter, boolean correct) {
+        Mastery m;
+        synchronized (users) {
+            m = users.get(userId);
+        }
+        if (m == null || questionId > Integer.MAX_VALUE) return;
+        synchronized (m) {
+            m.apply((int) questionId, chapter, correct);
+        }
+    }
+
+    // Sampling weight of one question for a user, loading them if needed
+    double weight(Long userId, long questionId, Integer chapter) {
+        Mastery m = load(userId);
+        synchronized (m) {
+            return m.weight(questionId, chapter);
+        }
+    }
+
+    public void evict(Long userId) {
+        synchronized (users) {
+            users.remove(userId);
+        }
+    }
+
+    private Mastery load(Long userId) {
+        Mastery fresh = new Mastery();
+        // Published before it is filled and locked until it is, so answers recorded
+        // meanwhile wait and land on top of the loaded state instead of being missed
+        synchronized (fresh) {
+            synchronized (users) {
+                Mastery m = users.get(userId);
+                if (m != null) return m;
+                users.put(userId, fresh);
+                if (users.size() > maxUsers) users.remove(users.keySet().iterator().next());
+            }
+            try {
+                fill(fresh, userId);
+            } catch (RuntimeException e) {
+                synchronized (users) {
+                    users.remove(userId, fresh);
+                }
+                throw e;
+            }
+            return fresh;
+        }
+    }
+
+    private void fill(Mastery m, Long userId) {
+        // Buffer first: an answer flushed between the two reads is then in the query's result
+        List<AnswerWriteBuffer.BufferedAnswer> unwritten = answerWriteBuffer.unwrittenAnswers(userId);
+        for (Object[] row : userAnswerRepository.findMasteryRows(userId)) {
+            long questionId = ((Number) row[0]).longValue();
+            if (questionId > Integer.MAX_VALUE) continue;
+            m.apply((int) questionId, (Integer) row[1], Boolean.TRUE.equals(row[2]));
+        }
+        // Unwritten answers are newer than any stored row for the same question
+        for (AnswerWriteBuffer.BufferedAnswer answer : unwritten) {
+            if (answer.questionId() > Integer.MAX_VALUE) continue;
+            QuestionSnapshot question = questionCache.get(answer.questionId());
+            if (question == null) continue; // Deleted since it was answered
+            m.apply(answer.questionId().intValue(), question.getChapter(), answer.correct());
+        }
+    }
+
+    private static final class Mastery {
+        final BitSet answered = new BitSet();
+        final BitSet correct = new BitSet();
+        // chapter -> {answered, correct}
+        final Map<Integer, int[]> chapters = new HashMap<>();
+
+        void apply(int questionId, Integer chapter, boolean isCorrect) {
+            boolean wasAnswered = answered.get(questionId);
+            boolean wasCorrect = correct.get(questionId);
+            answered.set(questionId);
+            correct.set(questionId, isCorrect);
+            if (chapter == null) return;
+
+            int[] tally = chapters.computeIfAbsent(chapter, c -> new int[2]);
+            if (!wasAnswered) tally[0]++;
+            if (isCorrect && !wasCorrect) tally[1]++;
+            else if (!isCorrect && wasCorrect) tally[1]--;
+        }
+
+        double weight(long id, Integer chapter) {
+            int i = (int) Math.min(id, Integer.MAX_VALUE);
+            double base = i != id || !answered.get(i) ? UNSEEN_WEIGHT : correct.get(i) ? MASTERED_WEIGHT : WRONG_WEIGHT;
+            int[] tally = chapter != null ? chapters.get(chapter) : null;
+            // Laplace-smoothed, so an untouched chapter sits at 50%
+            double accuracy = tally == null ? 0.5 : (tally[1] + 1.0) / (tally[0] + 2.0);
+            return base * (2.0 - accuracy);
+        }
+    }
+}
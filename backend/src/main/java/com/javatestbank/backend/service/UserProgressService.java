@@ -0,0 +1,181 @@
+package com.javatestbank.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.repository.UserAnswerRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Read model for a user's progress. Three scalar queries load every answer with its
+ * question's grading data, no matter how many answers the user has, and the result
+ * is written straight to the response as JSON without building per-answer maps.
+ * A compact, delta-capable variant serves clients that sync incrementally.
+ */
+@Service
+public class UserProgressService {
+
+    private final UserAnswerRepository userAnswerRepository;
+    private final ObjectMapper objectMapper;
+
+    public UserProgressService(UserAnswerRepository userAnswerRepository, ObjectMapper objectMapper) {
+        this.userAnswerRepository = userAnswerRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Loads the progress eagerly (on the caller's thread, while a session is open) and
+     * returns a body that streams it in the frontend's shape:
+     * {@code {questionId: {selectedIndex, selectedIndices, feedback: {...}}}}.
+     */
+    public StreamingResponseBody progressFor(Long userId) {
+        List<Object[]> rows = userAnswerRepository.findProgressRows(userId, Instant.EPOCH);
+        Map<Long, List<Integer>> selected = group(userAnswerRepository.findSelectedIndicesForUser(userId, Instant.EPOCH));
+        Map<Long, List<Integer>> correct = group(userAnswerRepository.findCorrectIndicesForUser(userId, Instant.EPOCH));
+        correct.values().forEach(list -> list.sort(null));
+
+        // One entry per question (unique index on user_id, question_id)
+        Map<Long, Object[]> byQuestion = new LinkedHashMap<>();
+        for (Object[] row : rows) byQuestion.put(((Number) row[1]).longValue(), row);
+
+        return out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartObject();
+                for (Map.Entry<Long, Object[]> e : byQuestion.entrySet()) {
+                    Object[] row = e.getValue();
+                    long answerId = ((Number) row[0]).longValue();
+
+                    gen.writeObjectFieldStart(String.valueOf(e.getKey()));
+                    gen.writeNumberField("selectedIndex", ((Number) row[2]).intValue());
+                    writeIntArray(gen, "selectedIndices", selected.get(answerId));
+
+                    gen.writeObjectFieldStart("feedback");
+                    gen.writeBooleanField("correct", (Boolean) row[3]);
+                    if (row[4] != null) gen.writeNumberField("correctIndex", ((Number) row[4]).intValue());
+                    else gen.writeNullField("correctIndex");
+                    writeIntArray(gen, "correctIndices", correct.get(e.getKey()));
+                    gen.writeStringField("explanation", row[5] != null ? (String) row[5] : "");
+                    gen.writeEndObject();
+
+                    gen.writeEndObject();
+                }
+                gen.writeEndObject();
+            }
+        };
+    }
+
+    /**
+     * Compact progress: parallel arrays instead of one JSON object per answer, and no
+     * explanation text (clients fetch it by id from /questions/{id}/explanation).
+     * <ul>
+     *   <li>{@code ids} – question ids, ascending and delta-encoded (first id, then gaps)</li>
+     *   <li>{@code selections} – picked options as a bitmask (bit i = option i)</li>
+     *   <li>{@code answers} – the question's correct options as a bitmask</li>
+     *   <li>{@code multi}, {@code correct} – base64 {@link BitSet}s (little-endian, as
+     *       {@link BitSet#toByteArray}) indexed like {@code ids}</li>
+     *   <li>{@code version} – epoch millis to pass back as {@code since} for the next delta;
+     *       answers saved within that millisecond may be sent again, never skipped</li>
+     * </ul>
+     * Options beyond index 30 do not fit the masks and are dropped.
+     */
+    public CompactProgress compactProgressFor(Long userId, Instant since) {
+        List<Object[]> rows = userAnswerRepository.findProgressRows(userId, since);
+        Map<Long, List<Integer>> selected = group(userAnswerRepository.findSelectedIndicesForUser(userId, since));
+        Map<Long, List<Integer>> correctIndices = group(userAnswerRepository.findCorrectIndicesForUser(userId, since));
+
+        TreeMap<Long, Object[]> byQuestion = new TreeMap<>();
+        for (Object[] row : rows) byQuestion.put(((Number) row[1]).longValue(), row);
+
+        int n = byQuestion.size();
+        long[] ids = new long[n];
+        int[] selections = new int[n];
+        int[] answers = new int[n];
+        BitSet multi = new BitSet(n);
+        BitSet correct = new BitSet(n);
+        long version = since.toEpochMilli();
+
+        int i = 0;
+        long previousId = 0;
+        for (Map.Entry<Long, Object[]> e : byQuestion.entrySet()) {
+            Object[] row = e.getValue();
+            long questionId = e.getKey();
+            ids[i] = questionId - previousId;
+            previousId = questionId;
+
+            List<Integer> picked = selected.get(((Number) row[0]).longValue());
+            if (picked != null && !picked.isEmpty()) {
+                multi.set(i);
+                selections[i] = mask(picked);
+            } else {
+                selections[i] = mask(List.of(((Number) row[2]).intValue()));
+            }
+            if ((Boolean) row[3]) correct.set(i);
+
+            List<Integer> correctList = correctIndices.get(questionId);
+            if (correctList != null && !correctList.isEmpty()) answers[i] = mask(correctList);
+            else if (row[4] != null) answers[i] = mask(List.of(((Number) row[4]).intValue()));
+
+            if (row[6] != null) version = Math.max(version, ((Instant) row[6]).toEpochMilli());
+            i++;
+        }
+
+        Base64.Encoder b64 = Base64.getEncoder();
+        return new CompactProgress(version, n, ids, selections, answers,
+                b64.encodeToString(multi.toByteArray()), b64.encodeToString(correct.toByteArray()));
+    }
+
+    public record CompactProgress(long version, int count, long[] ids, int[] selections, int[] answers,
+                                  String multi, String correct) {}
+
+    /** Weak ETag over the user's answer set; changes on any insert, update or delete. */
+    public String etagFor(Long userId) {
+        List<Object[]> result = userAnswerRepository.findProgressVersion(userId);
+        Object[] row = result.isEmpty() ? new Object[] { null, 0L } : result.get(0);
+        long latest = row[0] != null ? ((Instant) row[0]).toEpochMilli() : 0;
+        long count = row[1] != null ? ((Number) row[1]).longValue() : 0;
+        return "W/\"" + userId + "-" + latest + "-" + count + "\"";
+    }
+
+    // Answers saved before updated_at existed would otherwise never match a "since" query
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillVersions() {
+        userAnswerRepository.backfillUpdatedAt(Instant.now());
+    }
+
+    private static int mask(List<Integer> options) {
+        int m = 0;
+        for (Integer o : options) {
+            if (o != null && o >= 0 && o < 31) m |= 1 << o;
+        }
+        return m;
+    }
+
+    private static Map<Long, List<Integer>> group(List<Object[]> rows) {
+        Map<Long, List<Integer>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent(((Number) row[0]).longValue(), k -> new ArrayList<>())
+                   .add(((Number) row[1]).intValue());
+        }
+        return grouped;
+    }
+
+    private static void writeIntArray(JsonGenerator gen, String field, List<Integer> values) throws java.io.IOException {
+        gen.writeArrayFieldStart(field);
+        if (values != null) {
+            for (Integer v : values) gen.writeNumber(v);
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.javatestbank.backend.config;
+
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.service.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Real server and raw URIs: the bypass depended on how Tomcat and Spring decode the path
+class AdminGateTest extends ApiTestSupport {
+
+    @Autowired
+    TokenService tokenService;
+
+    @Autowired
+    QuestionRepository questionRepository;
+
+    private Long questionId;
+
+    @BeforeEach
+    void createQuestion() {
+        questionId = questionRepository.save(new Question("1.1 Which keyword declares a constant?",
+                List.of("final", "const", "static", "var"), 0, "final")).getId();
+    }
+
+    @Test
+    void rejectsAnonymousCallsOnEveryPathSpelling() throws Exception {
+        for (String path : List.of("/api/admin/ai/cache-stats", "/api/%61dmin/ai/cache-stats",
+                "/api;x=1/admin/ai/cache-stats", "/api/admin;x/ai/cache-stats", "/api/ADMIN/../admin/ai/cache-stats")) {
+            int status = send("GET", path, null).statusCode();
+            assertTrue(status == 401 || status == 400 || status == 404, path + " answered " + status);
+        }
+    }
+
+    @Test
+    void encodedDeleteDoesNotReachTheHandler() throws Exception {
+        assertEquals(401, send("DELETE", "/api/%61dmin/questions/" + questionId, null).statusCode());
+        assertEquals(401, send("DELETE", "/api;x=1/admin/questions/" + questionId, null).statusCode());
+        assertTrue(questionRepository.existsById(questionId));
+    }
+
+    @Test
+    void requiresAnAdminToken() throws Exception {
+        String user = tokenService.issue(new TokenService.Principal(42L, "student", false));
+        String admin = tokenService.issue(new TokenService.Principal(null, "admin", true));
+
+        assertEquals(403, send("GET", "/api/%61dmin/ai/cache-stats", user).statusCode());
+        assertEquals(200, send("GET", "/api/%61dmin/ai/cache-stats", admin).statusCode());
+        assertEquals(200, send("GET", "/api/admin/ai/cache-stats", admin).statusCode());
+    }
+
+    @Test
+    void leavesPublicEndpointsOpen() throws Exception {
+        assertEquals(200, send("GET", "/api/questions/" + questionId + "/explanation", null).statusCode());
+    }
+}
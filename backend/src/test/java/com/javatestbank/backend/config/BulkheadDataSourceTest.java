@@ -0,0 +1,84 @@
+package com.javatestbank.backend.config;
+
+import com.javatestbank.backend.service.Bulkhead;
+import com.javatestbank.backend.service.BulkheadFullException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkheadDataSourceTest {
+
+    private final JdbcDataSource h2 = new JdbcDataSource();
+
+    BulkheadDataSourceTest() {
+        h2.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void holdsTheSlotUntilTheConnectionIsClosed() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("db", 1, 0, Duration.ofMillis(50));
+        DataSource dataSource = new BulkheadConfig.BulkheadDataSource(h2, bulkhead);
+
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, bulkhead.stats().get("active"));
+        assertThrows(BulkheadFullException.class, dataSource::getConnection);
+
+        connection.close();
+        assertEquals(0, bulkhead.stats().get("active"));
+        try (Connection again = dataSource.getConnection()) {
+            assertTrue(again.isValid(1));
+        }
+    }
+
+    @Test
+    void closingTwiceReleasesOnce() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("db", 2, 0, Duration.ofMillis(50));
+        DataSource dataSource = new BulkheadConfig.BulkheadDataSource(h2, bulkhead);
+
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+        assertEquals(0, bulkhead.stats().get("active"));
+
+        // A second release would have left a spare permit for a third connection
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertThrows(BulkheadFullException.class, dataSource::getConnection);
+        }
+    }
+
+    @Test
+    void waitsInTheQueueThenRejects() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("db", 1, 1, Duration.ofMillis(100));
+        DataSource dataSource = new BulkheadConfig.BulkheadDataSource(h2, bulkhead);
+
+        try (Connection held = dataSource.getConnection()) {
+            long start = System.nanoTime();
+            BulkheadFullException e = assertThrows(BulkheadFullException.class, dataSource::getConnection);
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 90, e.getMessage());
+        }
+        assertEquals(1L, bulkhead.stats().get("rejected"));
+        assertEquals(0, bulkhead.stats().get("queued"));
+    }
+
+    @Test
+    void failedConnectReleasesTheSlot() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("db", 1, 0, Duration.ofMillis(50));
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("connection refused"));
+        DataSource dataSource = new BulkheadConfig.BulkheadDataSource(down, bulkhead);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(0, bulkhead.stats().get("active"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.javatestbank.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.ApiTestSupport;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestMetricsFilterTest extends ApiTestSupport {
+
+    @Autowired MeterRegistry registry;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void recordsStreamedResponsesWhenTheyComplete() throws Exception {
+        String name = "metrics-" + System.nanoTime();
+        String token = register(name);
+        Recorded before = recorded("GET", "/api/user/{username}/progress", "200");
+
+        assertEquals(200, send("GET", "/api/user/" + name + "/progress", token).statusCode());
+
+        // The three progress queries run on the request thread before the body streams
+        Recorded after = awaitCount("GET", "/api/user/{username}/progress", "200", before.count + 1);
+        assertEquals(3, after.total - before.total);
+    }
+
+    @Test
+    void countsJdbcTemplateStatementsToo() {
+        double before = registry.get("app.db.statements").counter().count();
+        int[] count = new int[1];
+
+        StatementMetrics.countInto(count);
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM questions", Long.class);
+            jdbcTemplate.update("UPDATE questions SET chapter = chapter WHERE id = -1");
+        } finally {
+            StatementMetrics.stopCounting();
+        }
+
+        assertEquals(2, count[0]);
+        assertEquals(before + 2, registry.get("app.db.statements").counter().count());
+    }
+
+    @Test
+    void tagsErrorResponsesWithTheirStatus() throws Exception {
+        Recorded before = recorded("GET", "/api/questions/{id}/explanation", "404");
+
+        assertEquals(404, send("GET", "/api/questions/987654321/explanation", null).statusCode());
+
+        awaitCount("GET", "/api/questions/{id}/explanation", "404", before.count + 1);
+    }
+
+    @Test
+    void recordsAPropagatingExceptionAsA500() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        RequestMetricsFilter filter = new RequestMetricsFilter(meters, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/questions/7");
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/questions/{id}");
+            throw new IllegalStateException("boom");
+        }));
+
+        DistributionSummary summary = meters.get("app.http.request.queries")
+                .tags("method", "GET", "uri", "/api/questions/{id}", "status", "500").summary();
+        assertEquals(1, summary.count());
+    }
+
+    private record Recorded(long count, double total) {}
+
+    private Recorded recorded(String method, String uri, String status) {
+        DistributionSummary summary = registry.find("app.http.request.queries")
+                .tags("method", method, "uri", uri, "status", status).summary();
+        return summary == null ? new Recorded(0, 0) : new Recorded(summary.count(), summary.totalAmount());
+    }
+
+    // Async requests are recorded by the container's completion callback, just after the client has the response
+    private Recorded awaitCount(String method, String uri, String status, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        Recorded now = recorded(method, uri, status);
+        while (now.count < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            now = recorded(method, uri, status);
+        }
+        assertEquals(count, now.count);
+        return now;
+    }
+
+    private String register(String name) throws Exception {
+        var response = send("POST", "/api/register", null, "{\"username\": \"" + name + "\", \"password\": \"pw\"}");
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+}
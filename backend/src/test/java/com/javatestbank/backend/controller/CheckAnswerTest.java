@@ -0,0 +1,56 @@
+package com.javatestbank.backend.controller;
+
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckAnswerTest extends ApiTestSupport {
+
+    @Autowired
+    QuestionRepository questionRepository;
+
+    private Long questionId;
+
+    @BeforeEach
+    void createQuestion() {
+        questionId = questionRepository.save(new Question("2.1 Which type is a primitive?",
+                List.of("int", "Integer", "String", "Object"), 0, "int is primitive")).getId();
+    }
+
+    @Test
+    void rejectsOptionIndicesOutsideTheQuestion() throws Exception {
+        for (String selection : List.of("\"selectedOptionIndex\": 4", "\"selectedOptionIndex\": -1",
+                "\"selectedOptionIndex\": 2147483647", "\"selectedIndices\": [0, 100000000]", "\"selectedIndices\": [-1]")) {
+            var response = send("POST", "/api/check-answer", null, "{\"questionId\": " + questionId + ", " + selection + "}");
+            assertEquals(400, response.statusCode(), selection);
+        }
+    }
+
+    @Test
+    void rejectsAnswersWithoutASelection() throws Exception {
+        for (String selection : List.of("\"selectedIndices\": []", "\"selectedIndices\": [], \"selectedOptionIndex\": 0",
+                "\"selectedOptionIndex\": null")) {
+            var response = send("POST", "/api/check-answer", null, "{\"questionId\": " + questionId + ", " + selection + "}");
+            assertEquals(400, response.statusCode(), selection);
+        }
+    }
+
+    @Test
+    void gradesValidSelections() throws Exception {
+        var right = send("POST", "/api/check-answer", null, "{\"questionId\": " + questionId + ", \"selectedOptionIndex\": 0}");
+        assertEquals(200, right.statusCode());
+        assertTrue(right.body().contains("\"correct\":true"), right.body());
+
+        var wrong = send("POST", "/api/check-answer", null, "{\"questionId\": " + questionId + ", \"selectedIndices\": [3]}");
+        assertEquals(200, wrong.statusCode());
+        assertTrue(wrong.body().contains("\"correct\":false"), wrong.body());
+    }
+}
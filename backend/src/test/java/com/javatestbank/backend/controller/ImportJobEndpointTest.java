@@ -0,0 +1,109 @@
+package com.javatestbank.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.service.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk and import uploads run as background jobs the client polls; creating a single
+ * question whose answer nobody knows fails explicitly. The test profile's AI provider
+ * is unreachable, so only fully manual questions can be saved.
+ */
+class ImportJobEndpointTest extends ApiTestSupport {
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Autowired private TokenService tokenService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String admin;
+
+    @BeforeEach
+    void signIn() {
+        admin = tokenService.issue(new TokenService.Principal(null, "admin", true));
+    }
+
+    @Test
+    void bulkUploadRunsAsAPolledJob() throws Exception {
+        String tag = "bulkjob" + System.nanoTime();
+        String body = "[{\"text\":\"" + tag + " first unique wording\",\"options\":[\"a\",\"b\"],\"correctIndex\":1,\"explanation\":\"x\"},"
+                + "{\"text\":\"" + tag + " second and rather different\",\"options\":[\"c\",\"d\"],\"correctIndex\":0,\"explanation\":\"y\"}]";
+
+        HttpResponse<String> accepted = send("POST", "/api/admin/questions/bulk", admin, body);
+        assertEquals(202, accepted.statusCode());
+        String jobId = json.readTree(accepted.body()).get("jobId").asText();
+        assertEquals("/api/admin/import-jobs/" + jobId, accepted.headers().firstValue("Location").orElseThrow());
+
+        JsonNode job = awaitJob(jobId);
+        assertEquals("done", job.get("status").asText());
+        assertEquals(200, job.get("httpStatus").asInt());
+        assertEquals(2, job.get("result").get("imported").asInt());
+        assertEquals(2, countTagged(tag));
+    }
+
+    @Test
+    void streamImportIsSpooledAndRunInTheBackground() throws Exception {
+        String tag = "streamjob" + System.nanoTime();
+        String body = "{\"question\":\"" + tag + " streamed question\",\"answers\":[{\"answer\":\"yes\",\"is_right\":true,\"explanation\":\"e\"},{\"answer\":\"no\"}]}\n";
+
+        HttpResponse<String> accepted = send("POST", "/api/admin/questions/import/stream", admin, body);
+        assertEquals(202, accepted.statusCode());
+
+        JsonNode job = awaitJob(json.readTree(accepted.body()).get("jobId").asText());
+        assertEquals(1, job.get("result").get("imported").asInt());
+        assertEquals(1, countTagged(tag));
+    }
+
+    @Test
+    void jobsAreAdminOnlyAndUnknownIdsAre404() throws Exception {
+        String student = tokenService.issue(new TokenService.Principal(7L, "student", false));
+        assertEquals(401, send("GET", "/api/admin/import-jobs/nope", null).statusCode());
+        assertEquals(403, send("GET", "/api/admin/import-jobs/nope", student).statusCode());
+        assertEquals(404, send("GET", "/api/admin/import-jobs/nope", admin).statusCode());
+    }
+
+    @Test
+    void createWithoutKnownAnswerFailsExplicitly() throws Exception {
+        String tag = "noanswer" + System.nanoTime();
+        HttpResponse<String> response = send("POST", "/api/admin/questions", admin,
+                "{\"text\":\"" + tag + "\",\"options\":[\"a\",\"b\"]}");
+
+        assertEquals(502, response.statusCode());
+        assertTrue(json.readTree(response.body()).get("error").asText().startsWith("AI analysis failed"));
+        assertEquals(0, countTagged(tag));
+    }
+
+    @Test
+    void createWithManualAnswerSkipsTheAi() throws Exception {
+        String tag = "manual" + System.nanoTime();
+        HttpResponse<String> response = send("POST", "/api/admin/questions", admin,
+                "{\"text\":\"" + tag + "\",\"options\":[\"a\",\"b\"],\"correctIndex\":1,\"explanation\":\"because\"}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(1, json.readTree(response.body()).get("correctIndex").asInt());
+        assertEquals(1, countTagged(tag));
+    }
+
+    private JsonNode awaitJob(String jobId) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            JsonNode job = json.readTree(send("GET", "/api/admin/import-jobs/" + jobId, admin).body());
+            if (job.has("finishedAt")) return job;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("job " + jobId + " did not finish");
+    }
+
+    private int countTagged(String tag) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM questions WHERE text LIKE ?", Integer.class, tag + "%");
+    }
+}
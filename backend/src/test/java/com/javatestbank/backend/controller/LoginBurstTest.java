@@ -0,0 +1,56 @@
+package com.javatestbank.backend.controller;
+
+import com.javatestbank.backend.ApiTestSupport;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Register and login wait on the hashing pool. With the test profile's four
+ * connections, a burst must neither hold connections across that wait nor turn
+ * a full queue into 500s: every response is a success or a 503.
+ */
+class LoginBurstTest extends ApiTestSupport {
+
+    private static final int CLIENTS = 40;
+
+    @Test
+    void registerAndLoginBurstNeverFails() throws Exception {
+        String prefix = "burst" + System.nanoTime() + "_";
+        assertAllOkOrBusy(burst(i -> "/api/register", prefix));
+        assertAllOkOrBusy(burst(i -> "/api/login", prefix));
+    }
+
+    private List<Integer> burst(IntFunction<String> path, String prefix) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<HttpResponse<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                int n = i;
+                Callable<HttpResponse<String>> call = () -> send("POST", path.apply(n), null,
+                        "{\"username\":\"" + prefix + n + "\",\"password\":\"pw" + n + "\"}");
+                futures.add(clients.submit(call));
+            }
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<HttpResponse<String>> f : futures) statuses.add(f.get(30, TimeUnit.SECONDS).statusCode());
+            return statuses;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void assertAllOkOrBusy(List<Integer> statuses) {
+        assertTrue(statuses.stream().allMatch(s -> s == 200 || s == 503), "unexpected statuses " + statuses);
+        assertTrue(statuses.contains(200), "no request succeeded " + statuses);
+    }
+}
@@ -0,0 +1,164 @@
+package com.javatestbank.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.service.AnswerWriteBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProgressEndpointTest extends ApiTestSupport {
+
+    @Autowired QuestionRepository questionRepository;
+    @Autowired AnswerWriteBuffer answerWriteBuffer;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void streamsTheSignedInUsersAnswers() throws Exception {
+        Question single = new Question("4.1 Which keyword stops a loop?", List.of("break", "continue", "return", "exit"), 0, "break exits the loop");
+        Question multi = new Question("4.2 Which are reference types?", List.of("int", "String", "Integer", "char"), 1, "");
+        multi.setCorrectIndices(List.of(1, 2));
+        Long singleId = questionRepository.save(single).getId();
+        Long multiId = questionRepository.save(multi).getId();
+
+        String name = "progress-" + System.nanoTime();
+        String token = register(name);
+        answer(token, "{\"questionId\": " + singleId + ", \"selectedOptionIndex\": 1}");
+        answer(token, "{\"questionId\": " + multiId + ", \"selectedIndices\": [2, 1]}");
+        answerWriteBuffer.flush();
+
+        var response = send("GET", "/api/user/" + name + "/progress", token);
+        assertEquals(200, response.statusCode());
+        JsonNode body = objectMapper.readTree(response.body());
+        assertEquals(2, body.size(), response.body());
+
+        JsonNode first = body.get(String.valueOf(singleId));
+        assertEquals(1, first.get("selectedIndex").asInt());
+        assertEquals(false, first.get("feedback").get("correct").asBoolean());
+        assertEquals(0, first.get("feedback").get("correctIndex").asInt());
+        assertEquals("break exits the loop", first.get("feedback").get("explanation").asText());
+
+        JsonNode second = body.get(String.valueOf(multiId));
+        assertEquals(true, second.get("feedback").get("correct").asBoolean());
+        assertEquals(List.of(1, 2), ints(second.get("feedback").get("correctIndices")));
+        assertEquals(2, second.get("selectedIndices").size());
+    }
+
+    @Test
+    void compactSnapshotPacksAnswersIntoMasks() throws Exception {
+        Question single = new Question("4.3 Which method starts a thread?", List.of("run", "start", "call", "init"), 1, "start");
+        Question multi = new Question("4.4 Which are checked exceptions?", List.of("IOException", "NullPointerException", "SQLException", "Error"), 0, "");
+        multi.setCorrectIndices(List.of(0, 2));
+        Question later = new Question("4.5 Which type holds 64-bit integers?", List.of("int", "short", "byte", "long"), 3, "long");
+        Long singleId = questionRepository.save(single).getId();
+        Long multiId = questionRepository.save(multi).getId();
+        Long laterId = questionRepository.save(later).getId();
+
+        String name = "compact-" + System.nanoTime();
+        String token = register(name);
+        answer(token, "{\"questionId\": " + singleId + ", \"selectedOptionIndex\": 0}");
+        answer(token, "{\"questionId\": " + multiId + ", \"selectedIndices\": [2, 0]}");
+        answerWriteBuffer.flush();
+        Thread.sleep(5); // Keeps the earlier answers out of the version's millisecond
+        answer(token, "{\"questionId\": " + laterId + ", \"selectedOptionIndex\": 3}");
+        answerWriteBuffer.flush();
+
+        var response = send("GET", "/api/user/" + name + "/progress/compact", token);
+        assertEquals(200, response.statusCode(), response.body());
+        JsonNode body = objectMapper.readTree(response.body());
+        assertEquals(3, body.get("count").asInt());
+        // Ids are ascending and delta-encoded: the first id, then the gaps
+        assertEquals(List.of(singleId, multiId, laterId), decodeIds(body.get("ids")));
+        assertEquals(multiId - singleId, body.get("ids").get(1).asLong());
+        assertEquals(List.of(0b0001, 0b0101, 0b1000), ints(body.get("selections")));
+        assertEquals(List.of(0b0010, 0b0101, 0b1000), ints(body.get("answers")));
+        assertEquals(BitSet.valueOf(new long[] { 0b010 }), bits(body.get("multi")));
+        assertEquals(BitSet.valueOf(new long[] { 0b110 }), bits(body.get("correct")));
+
+        // An unchanged answer set is a 304 for the same ETag
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+        HttpRequest conditional = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/user/" + name + "/progress/compact"))
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", etag)
+                .build();
+        var unchanged = HttpClient.newHttpClient().send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, unchanged.statusCode());
+
+        // A delta after the snapshot's version carries the re-answered question; answers from
+        // the version's own millisecond may be sent again, earlier ones are not
+        long version = body.get("version").asLong();
+        Thread.sleep(5);
+        answer(token, "{\"questionId\": " + singleId + ", \"selectedOptionIndex\": 1}");
+        answerWriteBuffer.flush();
+
+        var delta = send("GET", "/api/user/" + name + "/progress/compact?since=" + version, token);
+        assertEquals(200, delta.statusCode(), delta.body());
+        JsonNode deltaBody = objectMapper.readTree(delta.body());
+        List<Long> deltaIds = decodeIds(deltaBody.get("ids"));
+        assertEquals(deltaBody.get("count").asInt(), deltaIds.size());
+        assertEquals(singleId, deltaIds.get(0), delta.body());
+        assertFalse(deltaIds.contains(multiId), delta.body());
+        assertEquals(0b0010, deltaBody.get("selections").get(0).asInt());
+        assertTrue(bits(deltaBody.get("correct")).get(0));
+        assertTrue(deltaBody.get("version").asLong() > version);
+        assertNotEquals(etag, delta.headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    void isPrivateToItsOwner() throws Exception {
+        String name = "owner-" + System.nanoTime();
+        register(name);
+        String other = register("other-" + System.nanoTime());
+
+        var anonymous = send("GET", "/api/user/" + name + "/progress", null);
+        assertEquals(401, anonymous.statusCode());
+        assertEquals("Authentication required", objectMapper.readTree(anonymous.body()).get("error").asText());
+        var foreign = send("GET", "/api/user/" + name + "/progress", other);
+        assertEquals(403, foreign.statusCode());
+        assertEquals("Not your progress", objectMapper.readTree(foreign.body()).get("error").asText());
+    }
+
+    private String register(String name) throws Exception {
+        var response = send("POST", "/api/register", null, "{\"username\": \"" + name + "\", \"password\": \"pw\"}");
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private void answer(String token, String json) throws Exception {
+        var response = send("POST", "/api/check-answer", token, json);
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(response.body().contains("\"correct\""));
+    }
+
+    private static List<Integer> ints(JsonNode array) {
+        List<Integer> values = new java.util.ArrayList<>();
+        array.forEach(n -> values.add(n.asInt()));
+        return values;
+    }
+
+    private static List<Long> decodeIds(JsonNode deltas) {
+        List<Long> ids = new java.util.ArrayList<>();
+        long id = 0;
+        for (JsonNode gap : deltas) ids.add(id += gap.asLong());
+        return ids;
+    }
+
+    private static BitSet bits(JsonNode base64) {
+        return BitSet.valueOf(Base64.getDecoder().decode(base64.asText()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.javatestbank.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSummary;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.service.QuestionIdIndex;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionScrollTest extends ApiTestSupport {
+
+    private static final String LONG_TEXT = "7.3 " + "Which statement about the Java memory model holds? ".repeat(6);
+
+    @Autowired QuestionRepository questionRepository;
+    @Autowired QuestionIdIndex questionIdIndex;
+    @Autowired MeterRegistry registry;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    // Ids come from pooled sequence blocks, so other tests' rows may sit between and after these
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void createQuestions() {
+        ids.add(save(new Question("7.1 Which keyword makes a field shared by all instances?", List.of("static", "final", "const"), 0, "")));
+        ids.add(save(new Question("7.2 Which type is a primitive?", List.of("int", "Integer", "String", "Object", "List"), 0, "")));
+        ids.add(save(new Question(LONG_TEXT, List.of("happens-before", "none", "all", "some"), 0, "")));
+        ids.add(save(new Question("No chapter prefix here", List.of("yes", "no"), 0, "")));
+        ids.add(save(new Question("7.5 Which loop runs at least once?", List.of("for", "while", "do-while"), 2, "")));
+    }
+
+    @Test
+    void cursorWalksThePagesToTheEnd() throws Exception {
+        long start = ids.get(0) - 1;
+        List<Long> expected = idsAfter(start);
+        long cursor = start;
+        List<Long> seen = new ArrayList<>();
+        List<JsonNode> pages = new ArrayList<>();
+        do {
+            JsonNode page = scroll("after=" + cursor + "&size=2");
+            pages.add(page);
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? -1 : page.get("nextCursor").asLong();
+        } while (cursor >= 0);
+
+        assertEquals(expected, seen);
+        assertTrue(seen.containsAll(ids));
+        assertFalse(pages.get(0).has("total"));
+        // Every full page points at its last row; only a short page ends the walk
+        for (JsonNode page : pages.subList(0, pages.size() - 1)) {
+            assertEquals(2, page.get("items").size());
+            assertEquals(page.get("items").get(1).get("id").asLong(), page.get("nextCursor").asLong());
+        }
+        assertTrue(pages.get(pages.size() - 1).get("items").size() < 2);
+    }
+
+    @Test
+    void fullPageAtTheEndStillHandsOutACursor() throws Exception {
+        List<Long> all = idsAfter(ids.get(0) - 1);
+        long last = all.get(all.size() - 1);
+
+        JsonNode page = scroll("after=" + all.get(all.size() - 3) + "&size=2");
+
+        // Nothing follows these two rows, but only the next, empty page can say so
+        assertEquals(last, page.get("nextCursor").asLong());
+        JsonNode past = scroll("after=" + last + "&size=2");
+        assertEquals(0, past.get("items").size());
+        assertTrue(past.get("nextCursor").isNull());
+    }
+
+    @Test
+    void summaryViewTruncatesTheTextAndCountsOptions() throws Exception {
+        Map<Long, JsonNode> items = new HashMap<>();
+        scroll("after=" + (ids.get(0) - 1) + "&size=100&view=summary").get("items")
+                .forEach(item -> items.put(item.get("id").asLong(), item));
+
+        JsonNode first = items.get(ids.get(0));
+        assertEquals(List.of("id", "preview", "optionCount", "chapter"), fieldNames(first));
+        assertEquals(3, first.get("optionCount").asInt());
+        assertEquals(7, first.get("chapter").asInt());
+        assertEquals(5, items.get(ids.get(1)).get("optionCount").asInt());
+
+        String preview = items.get(ids.get(2)).get("preview").asText();
+        assertEquals(QuestionSummary.PREVIEW_LENGTH, preview.length());
+        assertEquals(LONG_TEXT.substring(0, QuestionSummary.PREVIEW_LENGTH), preview);
+        assertTrue(items.get(ids.get(3)).get("chapter").isNull());
+    }
+
+    @Test
+    void totalComesFromTheIdIndexNotACount() throws Exception {
+        questionIdIndex.refresh();
+        int indexed = questionIdIndex.size();
+        // Not yet in the index: a COUNT(*) would see it, the index does not
+        save(new Question("7.6 Which collection is thread-safe?", List.of("Vector", "ArrayList"), 0, ""));
+        DistributionSummary queries = scrollQueries();
+        long calls = queries != null ? queries.count() : 0;
+        double statements = queries != null ? queries.totalAmount() : 0;
+
+        JsonNode page = scroll("after=" + (ids.get(0) - 1) + "&size=2&view=summary&includeTotal=true");
+
+        assertEquals(indexed, page.get("total").asInt());
+        // Recorded as the request finishes, which may be just after the client has the body
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (scrollQueries().count() == calls && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(calls + 1, scrollQueries().count());
+        // Only the page itself was queried
+        assertEquals(1.0, scrollQueries().totalAmount() - statements);
+    }
+
+    @Test
+    void repositoryLoadsSummariesByCursorAndById() {
+        List<QuestionSummary> afterFirst = questionRepository.findSummariesAfter(ids.get(0), PageRequest.of(0, 2));
+        assertEquals(idsAfter(ids.get(0)).subList(0, 2), afterFirst.stream().map(QuestionSummary::id).toList());
+
+        List<QuestionSummary> byId = questionRepository.findSummariesByIdIn(List.of(ids.get(3), ids.get(0), -1L));
+        assertEquals(2, byId.size());
+        QuestionSummary noChapter = byId.stream().filter(s -> s.id().equals(ids.get(3))).findFirst().orElseThrow();
+        assertEquals("No chapter prefix here", noChapter.preview());
+        assertEquals(2, noChapter.optionCount());
+        assertNull(noChapter.chapter());
+    }
+
+    private Long save(Question question) {
+        return questionRepository.save(question).getId();
+    }
+
+    private List<Long> idsAfter(long after) {
+        return jdbcTemplate.queryForList("SELECT id FROM questions WHERE id > ? ORDER BY id", Long.class, after);
+    }
+
+    private JsonNode scroll(String query) throws Exception {
+        var response = send("GET", "/api/questions/scroll?" + query, null);
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    private DistributionSummary scrollQueries() {
+        return registry.find("app.http.request.queries").tags("uri", "/api/questions/scroll", "status", "200").summary();
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
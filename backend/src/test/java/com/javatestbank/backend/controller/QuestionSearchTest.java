@@ -0,0 +1,74 @@
+package com.javatestbank.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.service.QuestionSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// H2 has no full-text search, so this runs on the in-memory index
+class QuestionSearchTest extends ApiTestSupport {
+
+    @Autowired QuestionRepository questionRepository;
+    @Autowired QuestionSearchService questionSearchService;
+    @Autowired ObjectMapper objectMapper;
+
+    // A word no other test's questions contain
+    private final String word = "xylo" + System.nanoTime() + "phone";
+    private Long textMatch;
+    private Long optionMatch;
+
+    @BeforeEach
+    void createQuestions() {
+        Question text = new Question("6.1 Which collection rejects " + word + " duplicates?", List.of("Set", "List", "Queue", "Deque"), 0, "");
+        Question option = new Question("6.2 Pick the right answer", List.of(word + " quuxcollection", "Array", "Map", "None"), 0, "");
+        textMatch = questionRepository.save(text).getId();
+        optionMatch = questionRepository.save(option).getId();
+        questionSearchService.index(List.of(text, option));
+    }
+
+    @Test
+    void ranksMatchesAndReturnsTheirSummaries() throws Exception {
+        JsonNode results = search(word.substring(0, word.length() - 3)); // Matches as a prefix
+
+        assertEquals(List.of(textMatch, optionMatch), ids(results));
+        JsonNode first = results.get(0);
+        assertEquals(6, first.get("question").get("chapter").asInt());
+        assertEquals(4, first.get("question").get("optionCount").asInt());
+        assertEquals(1.0, first.get("rank").asDouble());
+        assertEquals(0.4, results.get(1).get("rank").asDouble());
+    }
+
+    @Test
+    void requiresEveryWord() throws Exception {
+        assertEquals(List.of(optionMatch), ids(search(word + "%20quux")));
+        assertEquals(List.of(), ids(search(word + "%20zzznothing")));
+    }
+
+    @Test
+    void ignoresStopWordsLikePostgres() throws Exception {
+        assertEquals(List.of(textMatch, optionMatch), ids(search("the%20" + word)));
+        assertEquals(List.of(), ids(search("the")));
+    }
+
+    private JsonNode search(String rawQuery) throws Exception {
+        var response = send("GET", "/api/questions/search?q=" + rawQuery, null);
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    private static List<Long> ids(JsonNode results) {
+        List<Long> ids = new ArrayList<>();
+        results.forEach(r -> ids.add(r.get("question").get("id").asLong()));
+        return ids;
+    }
+}
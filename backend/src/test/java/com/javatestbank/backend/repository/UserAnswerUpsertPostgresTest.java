@@ -0,0 +1,160 @@
+package com.javatestbank.backend.repository;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.User;
+import com.javatestbank.backend.repository.UserAnswerUpsertRepository.AnswerRow;
+import com.javatestbank.backend.repository.UserAnswerUpsertRepository.UpsertResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the INSERT ... ON CONFLICT statement against a real PostgreSQL, which H2 cannot
+ * emulate. Enabled by pointing TEST_POSTGRES_URL at a disposable database, e.g.
+ * {@code TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/postgres mvn test}; the
+ * schema is created and dropped by the test context. CI runs it against a PostgreSQL
+ * service container (.github/workflows/backend.yml).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class UserAnswerUpsertPostgresTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username", () -> envOr("TEST_POSTGRES_USER", "postgres"));
+        registry.add("spring.datasource.password", () -> envOr("TEST_POSTGRES_PASSWORD", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired UserAnswerUpsertRepository upsertRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired QuestionRepository questionRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate tx;
+    private Long userId;
+    private Long otherUserId;
+    private Long questionId;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        questionId = questionRepository.save(new Question("4.2 Which collections keep insertion order?",
+                List.of("HashSet", "LinkedHashSet", "ArrayList", "TreeSet"), 1, "LinkedHashSet and ArrayList")).getId();
+        userId = userRepository.save(new User("pg-upsert-" + System.nanoTime(), "x")).getId();
+        otherUserId = userRepository.save(new User("pg-upsert-other-" + System.nanoTime(), "x")).getId();
+    }
+
+    @Test
+    void firstWriteInsertsAndReportsNoPreviousSelection() {
+        assertTrue(upsertRepository.isSupported());
+
+        List<UpsertResult> results = upsert(List.of(
+                new AnswerRow(userId, questionId, 1, List.of(), true),
+                new AnswerRow(otherUserId, questionId, 0, List.of(1, 2), false)));
+
+        assertEquals(2, results.size());
+        results.forEach(r -> assertNull(r.previous()));
+        assertEquals(1, rows(userId));
+        assertEquals(List.of(1, 2), indices(otherUserId));
+    }
+
+    @Test
+    void secondWriteUpdatesInPlaceAndReturnsThePreviousSelection() {
+        List<UpsertResult> first = upsert(List.of(
+                new AnswerRow(userId, questionId, 1, List.of(), true),
+                new AnswerRow(otherUserId, questionId, 0, List.of(1, 2), false)));
+
+        List<UpsertResult> second = upsert(List.of(
+                new AnswerRow(userId, questionId, 0, List.of(0, 3), false),
+                new AnswerRow(otherUserId, questionId, 3, List.of(), false)));
+
+        UpsertResult mine = byUser(second, userId);
+        UpsertResult theirs = byUser(second, otherUserId);
+        assertEquals(byUser(first, userId).id(), mine.id());
+        assertEquals(byUser(first, otherUserId).id(), theirs.id());
+        assertEquals(List.of(1), mine.previous());
+        assertEquals(List.of(1, 2), theirs.previous());
+
+        assertEquals(1, rows(userId));
+        assertEquals(1, rows(otherUserId));
+        assertEquals(List.of(0, 3), indices(userId));
+        assertEquals(List.of(), indices(otherUserId));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT selected_option_index FROM user_answers WHERE id = ?", Integer.class, theirs.id()));
+    }
+
+    @Test
+    void concurrentWritersForOnePairLeaveOneRow() throws Exception {
+        int writers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                int choice = i % 4;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return upsert(List.of(new AnswerRow(userId, questionId, choice, List.of(), choice == 1)));
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, rows(userId));
+    }
+
+    private List<UpsertResult> upsert(List<AnswerRow> rows) {
+        return tx.execute(status -> upsertRepository.upsertAll(rows));
+    }
+
+    private int rows(Long user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_answers WHERE user_id = ? AND question_id = ?", Integer.class, user, questionId);
+    }
+
+    private List<Integer> indices(Long user) {
+        List<Integer> found = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT i.selected_index FROM user_answer_indices i JOIN user_answers ua ON ua.id = i.user_answer_id " +
+                "WHERE ua.user_id = ? AND ua.question_id = ?", Integer.class, user, questionId));
+        found.sort(Comparator.naturalOrder());
+        return found;
+    }
+
+    private static UpsertResult byUser(List<UpsertResult> results, Long user) {
+        return results.stream().filter(r -> r.userId() == user).findFirst().orElseThrow();
+    }
+
+    private static String envOr(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
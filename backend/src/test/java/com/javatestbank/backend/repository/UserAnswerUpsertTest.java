@@ -0,0 +1,106 @@
+package com.javatestbank.backend.repository;
+
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.User;
+import com.javatestbank.backend.service.AnswerWriteBuffer;
+import com.javatestbank.backend.service.QuestionStatsStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * One answer row per (user, question) on H2, which takes the portable write path.
+ * The ON CONFLICT statement itself is covered by {@link UserAnswerUpsertPostgresTest}.
+ */
+class UserAnswerUpsertTest extends ApiTestSupport {
+
+    @Autowired UserAnswerRepository userAnswerRepository;
+    @Autowired UserAnswerUpsertRepository upsertRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired QuestionRepository questionRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private final List<List<Integer>> previousSelections = new ArrayList<>();
+    private AnswerWriteBuffer buffer;
+    private Long questionId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        questionId = questionRepository.save(new Question("4.2 Which collections keep insertion order?",
+                List.of("HashSet", "LinkedHashSet", "ArrayList", "TreeSet"), 1, "LinkedHashSet and ArrayList")).getId();
+        userId = userRepository.save(new User("upsert-" + System.nanoTime(), "x")).getId();
+        QuestionStatsStore stats = new QuestionStatsStore(null) {
+            @Override
+            public void record(Long questionId, List<Integer> previous, List<Integer> current) {
+                previousSelections.add(previous);
+            }
+        };
+        buffer = new AnswerWriteBuffer(userAnswerRepository, upsertRepository, userRepository, questionRepository,
+                stats, transactionManager, "sync", 3_600_000, 1000, 10_000);
+    }
+
+    @AfterEach
+    void stopBuffer() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void answeringAgainUpdatesTheSameRow() {
+        assertFalse(upsertRepository.isSupported());
+
+        buffer.submit(userId, questionId, null, List.of(1, 2), true);
+        buffer.submit(userId, questionId, 0, null, false);
+
+        assertEquals(1, answerRows());
+        Long answerId = jdbcTemplate.queryForObject(
+                "SELECT id FROM user_answers WHERE user_id = ? AND question_id = ?", Long.class, userId, questionId);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT selected_option_index FROM user_answers WHERE id = ?", Integer.class, answerId));
+        // The switch to a single answer drops the earlier multi-select indices
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_answer_indices WHERE user_answer_id = ?", Integer.class, answerId));
+
+        assertEquals(2, previousSelections.size());
+        assertNull(previousSelections.get(0));
+        assertEquals(List.of(1, 2), previousSelections.get(1));
+    }
+
+    @Test
+    void uniqueIndexRejectsASecondRowForThePair() {
+        buffer.submit(userId, questionId, 1, null, true);
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO user_answers (user_id, question_id, selected_option_index, is_correct) VALUES (?, ?, 3, false)",
+                userId, questionId));
+        assertEquals(1, answerRows());
+    }
+
+    @Test
+    void anonymousAnswersAreNotCoalesced() {
+        buffer.submit(null, questionId, 1, null, true);
+        buffer.submit(null, questionId, 1, null, true);
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_answers WHERE user_id IS NULL AND question_id = ?", Integer.class, questionId));
+    }
+
+    private int answerRows() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_answers WHERE user_id = ? AND question_id = ?", Integer.class, userId, questionId);
+    }
+}
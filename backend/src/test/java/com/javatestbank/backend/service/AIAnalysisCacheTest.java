@@ -0,0 +1,79 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.AIAnalysisCacheEntry;
+import com.javatestbank.backend.repository.AIAnalysisCacheRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AIAnalysisCacheTest {
+
+    private final AIAnalysisCacheRepository repository = mock(AIAnalysisCacheRepository.class);
+    private final AIAnalysisCache cache = new AIAnalysisCache(repository, 100, 720, 1, 0);
+
+    @AfterEach
+    void shutdown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void outOfRangeAnalysisIsNotCached() {
+        when(repository.findById("k")).thenReturn(Optional.empty());
+
+        cache.put("k", Map.of("correctIndex", 4, "explanation", "no such option"), 4);
+        cache.put("k", Map.of("correctIndex", -1, "explanation", "no such option"), 4);
+
+        assertNull(cache.get("k", 4));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void storedRowThatDoesNotFitTheOptionsIsAMiss() {
+        when(repository.findById("k")).thenReturn(Optional.of(new AIAnalysisCacheEntry("k", 7, "stale", Instant.now())));
+
+        assertNull(cache.get("k", 4));
+    }
+
+    @Test
+    void promotedRowKeepsItsRemainingLifetime() throws Exception {
+        // One day of database TTL with 300 ms left; memory TTL is 12 hours
+        Instant createdAt = Instant.now().minus(Duration.ofDays(1)).plusMillis(300);
+        when(repository.findById("k"))
+                .thenReturn(Optional.of(new AIAnalysisCacheEntry("k", 1, "why", createdAt)))
+                .thenReturn(Optional.empty());
+
+        assertNotNull(cache.get("k", 4));
+        assertNotNull(cache.get("k", 4)); // From memory
+        Thread.sleep(400);
+
+        assertNull(cache.get("k", 4));
+        assertEquals(1L, cache.stats().get("memoryHits"));
+    }
+
+    @Test
+    void purgeDeletesRowsPastTheDatabaseTtl() {
+        when(repository.deleteCreatedBefore(any())).thenReturn(3);
+
+        assertEquals(3, cache.purgeExpired());
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).deleteCreatedBefore(cutoff.capture());
+        Duration age = Duration.between(cutoff.getValue(), Instant.now());
+        assertTrue(age.compareTo(Duration.ofDays(1)) >= 0 && age.compareTo(Duration.ofDays(1).plusMinutes(1)) < 0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.javatestbank.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.repository.AIAnalysisCacheRepository;
+import com.javatestbank.backend.repository.QuestionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Failure isolation in AIService, with a fake provider standing in for the HTTP client.
+ */
+class AIServiceTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final AIAnalysisCache analysisCache = new AIAnalysisCache(mock(AIAnalysisCacheRepository.class), 100, 720, 1, 0);
+    // Window of 4, all 4 recorded before judging, opens at 50% failures
+    private final CircuitBreaker breaker = new CircuitBreaker("ai", 4, 4, 0.5, Duration.ofSeconds(30));
+    private ExplanationService explanations;
+
+    @AfterEach
+    void stop() {
+        if (explanations != null) explanations.shutdown();
+        analysisCache.shutdown();
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuitAndLaterCallsFailFast() {
+        AIService ai = service(() -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        });
+
+        for (int i = 0; i < 4; i++) {
+            String question = "Question " + i;
+            assertThrows(HttpServerErrorException.class, () -> ai.generateExplanation(question, null, "A"));
+        }
+        assertFalse(ai.isAvailable());
+
+        assertThrows(CircuitOpenException.class, () -> ai.generateExplanation("Question 5", null, "A"));
+        assertEquals(4, calls.get());
+        assertEquals(4, requests("http_503"));
+    }
+
+    @Test
+    void placeholderIsShownWhileTheCircuitIsOpen() {
+        AIService ai = service(() -> {
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        });
+        for (int i = 0; i < 4; i++) {
+            String question = "Question " + i;
+            assertThrows(HttpServerErrorException.class, () -> ai.generateExplanation(question, null, "A"));
+        }
+        explanations = new ExplanationService(ai, mock(QuestionRepository.class), mock(QuestionCache.class), 1, 10, 300, 1_000);
+
+        QuestionSnapshot question = question();
+        String status = explanations.ensure(question);
+
+        assertEquals(ExplanationService.STATUS_UNAVAILABLE, status);
+        assertEquals(ExplanationService.PLACEHOLDER, ExplanationService.displayText(question, status));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void malformedAnswerIsRecordedOnceAsASuccess() {
+        AIService ai = service(() -> "{\"choices\":[]}");
+
+        assertThrows(AIResponseFormatException.class, () -> ai.generateExplanation("Question", null, "A"));
+
+        assertEquals(1, breaker.stats().get("recordedCalls"));
+        assertEquals(0, breaker.stats().get("failedCalls"));
+        assertEquals(1, requests("bad_response"));
+    }
+
+    @Test
+    void clientErrorsDoNotCountAgainstTheProvider() {
+        AIService ai = service(() -> {
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        });
+
+        for (int i = 0; i < 4; i++) {
+            String question = "Question " + i;
+            assertThrows(HttpClientErrorException.class, () -> ai.generateExplanation(question, null, "A"));
+        }
+
+        assertTrue(ai.isAvailable());
+        assertEquals(0, breaker.stats().get("recordedCalls"));
+    }
+
+    private long requests(String outcome) {
+        return meters.get("app.ai.requests").tag("outcome", outcome).timer().count();
+    }
+
+    private AIService service(Supplier<String> answer) {
+        ChatCompletionProvider provider = request -> {
+            calls.incrementAndGet();
+            return answer.get();
+        };
+        return new AIService(provider, new ObjectMapper(), analysisCache, meters,
+                new Bulkhead("ai", 2, 10, Duration.ofSeconds(1)), breaker);
+    }
+
+    private static QuestionSnapshot question() {
+        Question q = new Question();
+        q.setId(9L);
+        q.setText("Which statement about String is true?");
+        q.setOptions(List.of("It is immutable", "It is mutable"));
+        q.setCorrectIndex(0);
+        return QuestionSnapshot.of(q);
+    }
+}
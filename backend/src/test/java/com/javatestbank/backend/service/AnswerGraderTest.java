@@ -0,0 +1,91 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerGraderTest {
+
+    private final AnswerGrader grader = new AnswerGrader();
+
+    @Test
+    void singleSelect() {
+        QuestionSnapshot question = question(2, List.of());
+
+        assertTrue(grader.grade(question, 2));
+        assertFalse(grader.grade(question, 1));
+        assertTrue(grader.grade(question, new int[] { 2 }));
+        assertFalse(grader.grade(question, new int[] { 2, 1 }));
+    }
+
+    @Test
+    void multiSelectNeedsExactlyTheCorrectSetInAnyOrder() {
+        QuestionSnapshot question = question(0, List.of(0, 2));
+
+        assertTrue(grader.grade(question, new int[] { 2, 0 }));
+        assertFalse(grader.grade(question, new int[] { 0 }));
+        assertFalse(grader.grade(question, new int[] { 0, 1, 2 }));
+        // A single answer is never enough for a multi-select question
+        assertFalse(grader.grade(question, 0));
+    }
+
+    @Test
+    void legacyRowsGradeByCorrectIndexAlone() {
+        Question q = new Question("1.1 Which keyword declares a constant?", List.of("final", "const", "static", "var"), 0, "");
+        q.setCorrectIndices(null);
+        QuestionSnapshot question = QuestionSnapshot.of(q);
+
+        assertTrue(grader.grade(question, 0));
+        assertTrue(grader.grade(question, new int[] { 0 }));
+        assertFalse(grader.grade(question, 3));
+    }
+
+    @Test
+    void repeatedIndicesCountOnce() {
+        QuestionSnapshot question = question(0, List.of(0, 1));
+
+        assertTrue(grader.grade(question, new int[] { 0, 1, 1 }));
+        assertFalse(grader.grade(question, new int[] { 1, 1 }));
+    }
+
+    @Test
+    void outOfRangeIndicesAreWrong() {
+        QuestionSnapshot question = question(0, List.of(0, 1));
+
+        assertFalse(grader.grade(question, -1));
+        assertFalse(grader.grade(question, 64));
+        assertFalse(grader.grade(question, new int[] { 0, 1, 64 }));
+        assertFalse(grader.grade(question, new int[] { -1 }));
+    }
+
+    @Test
+    void outOfRangeIndexDoesNotMatchAllSixtyFourOptions() {
+        // Its mask has every bit set, which an invalid selection used to produce too
+        QuestionSnapshot question = question(0, IntStream.range(0, 64).boxed().toList());
+
+        assertFalse(grader.grade(question, new int[] { 64 }));
+        assertFalse(grader.grade(question, new int[] { -1 }));
+        assertTrue(grader.grade(question, IntStream.range(0, 64).toArray()));
+    }
+
+    @Test
+    void questionsWithoutAGradableAnswerAreAlwaysWrong() {
+        QuestionSnapshot question = question(99, List.of());
+
+        assertFalse(grader.grade(question, 99));
+        assertFalse(grader.grade(question, new int[] {}));
+        assertFalse(grader.grade(question(0, List.of(0, 70)), new int[] { 0 }));
+    }
+
+    private static QuestionSnapshot question(int correctIndex, List<Integer> correctIndices) {
+        Question q = new Question("2.1 Which of these compile?", List.of("a", "b", "c", "d"), correctIndex, "");
+        q.setCorrectIndices(correctIndices);
+        return QuestionSnapshot.of(q);
+    }
+}
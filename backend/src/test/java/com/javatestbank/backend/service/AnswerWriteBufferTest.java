@@ -0,0 +1,153 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.User;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.repository.UserAnswerRepository;
+import com.javatestbank.backend.repository.UserAnswerUpsertRepository;
+import com.javatestbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnswerWriteBufferTest extends ApiTestSupport {
+
+    @Autowired UserAnswerRepository userAnswerRepository;
+    @Autowired UserAnswerUpsertRepository upsertRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired QuestionRepository questionRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private final List<AnswerWriteBuffer> buffers = new ArrayList<>();
+    private Long questionId;
+    private Long userId;
+
+    @BeforeEach
+    void createQuestionAndUser() {
+        questionId = questionRepository.save(new Question("3.1 Which loop runs at least once?",
+                List.of("for", "while", "do-while", "foreach"), 2, "do-while checks after the body")).getId();
+        userId = userRepository.save(new User("buffer-" + System.nanoTime(), "x")).getId();
+    }
+
+    @AfterEach
+    void stopBuffers() {
+        buffers.forEach(AnswerWriteBuffer::shutdown);
+    }
+
+    @Test
+    void statsFailureAfterCommitDoesNotWriteTheBatchAgain() {
+        CountingStatsStore stats = new CountingStatsStore(true);
+        AnswerWriteBuffer buffer = buffer("buffered", stats, transactionManager, 10_000);
+        long before = userAnswerRepository.count();
+
+        buffer.submit(null, questionId, 1, null, false);
+        buffer.submit(null, questionId, 2, null, true);
+        buffer.flush();
+
+        assertEquals(before + 2, userAnswerRepository.count());
+        assertEquals(2, stats.calls.get());
+    }
+
+    @Test
+    void keepsTheBatchWhenTheDatabaseIsUnreachable() {
+        FlakyTransactionManager flaky = new FlakyTransactionManager(transactionManager, 1);
+        AnswerWriteBuffer buffer = buffer("buffered", new CountingStatsStore(false), flaky, 10_000);
+        long before = userAnswerRepository.count();
+
+        buffer.submit(userId, questionId, 0, null, false);
+        buffer.submit(null, questionId, 2, null, true);
+        buffer.flush();
+        assertEquals(2, buffer.pendingCount());
+        assertEquals(before, userAnswerRepository.count());
+
+        buffer.flush();
+        assertEquals(0, buffer.pendingCount());
+        assertEquals(before + 2, userAnswerRepository.count());
+    }
+
+    @Test
+    void refusesNewAnswersOnceTheBoundIsReached() {
+        FlakyTransactionManager down = new FlakyTransactionManager(transactionManager, Integer.MAX_VALUE);
+        AnswerWriteBuffer buffer = buffer("buffered", new CountingStatsStore(false), down, 2);
+
+        buffer.submit(userId, questionId, 0, null, false);
+        buffer.submit(null, questionId, 1, null, false);
+        buffer.flush(); // Fails and keeps both
+        assertThrows(AnswerBufferFullException.class, () -> buffer.submit(null, questionId, 2, null, true));
+
+        buffer.submit(userId, questionId, 2, null, true); // Replaces the pending answer, no growth
+        assertEquals(2, buffer.pendingCount());
+    }
+
+    @Test
+    void syncModeReportsWriteFailures() {
+        FlakyTransactionManager down = new FlakyTransactionManager(transactionManager, Integer.MAX_VALUE);
+        AnswerWriteBuffer buffer = buffer("sync", new CountingStatsStore(false), down, 10_000);
+
+        assertThrows(CannotCreateTransactionException.class, () -> buffer.submit(userId, questionId, 2, null, true));
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    private AnswerWriteBuffer buffer(String mode, QuestionStatsStore stats, PlatformTransactionManager tm, int maxBuffered) {
+        AnswerWriteBuffer buffer = new AnswerWriteBuffer(userAnswerRepository, upsertRepository, userRepository,
+                questionRepository, stats, tm, mode, 3_600_000, 1000, maxBuffered);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private static final class CountingStatsStore extends QuestionStatsStore {
+        final AtomicInteger calls = new AtomicInteger();
+        final boolean failing;
+
+        CountingStatsStore(boolean failing) {
+            super(null);
+            this.failing = failing;
+        }
+
+        @Override
+        public void record(Long questionId, List<Integer> previous, List<Integer> current) {
+            calls.incrementAndGet();
+            if (failing) throw new IllegalStateException("stats unavailable");
+        }
+    }
+
+    // Fails to open the first n transactions, as a lost connection would
+    private static final class FlakyTransactionManager implements PlatformTransactionManager {
+        final PlatformTransactionManager target;
+        final AtomicInteger failuresLeft;
+
+        FlakyTransactionManager(PlatformTransactionManager target, int failures) {
+            this.target = target;
+            this.failuresLeft = new AtomicInteger(failures);
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            if (failuresLeft.getAndDecrement() > 0) throw new CannotCreateTransactionException("connection refused");
+            return target.getTransaction(definition);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            target.commit(status);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            target.rollback(status);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.javatestbank.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stop() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void queuedCallRunsOnceASlotIsReleased() throws Exception {
+        Bulkhead bulkhead = bulkhead(1, 1, Duration.ofSeconds(5));
+        bulkhead.acquire();
+
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> bulkhead.call(() -> "ran"), callers);
+        awaitGauge("app.bulkhead.queued", 1);
+        assertFalse(waiting.isDone());
+
+        bulkhead.release();
+        assertEquals("ran", waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, gauge("app.bulkhead.queued"));
+        assertEquals(0.0, gauge("app.bulkhead.active"));
+        assertEquals(2, meters.get("app.bulkhead.wait").timer().count());
+    }
+
+    @Test
+    void rejectsStraightAwayWhenTheQueueIsFull() {
+        Bulkhead bulkhead = bulkhead(1, 0, Duration.ofSeconds(5));
+        bulkhead.acquire();
+
+        long start = System.nanoTime();
+        BulkheadFullException e = assertThrows(BulkheadFullException.class, bulkhead::acquire);
+
+        assertTrue(e.getMessage().contains("queue full"), e.getMessage());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_000);
+        assertEquals(1.0, meters.get("app.bulkhead.rejected").functionCounter().count());
+        assertEquals(1L, bulkhead.stats().get("rejected"));
+    }
+
+    @Test
+    void rejectsWhenTheWaitTimesOut() {
+        Bulkhead bulkhead = bulkhead(1, 1, Duration.ofMillis(100));
+        bulkhead.acquire();
+
+        BulkheadFullException e = assertThrows(BulkheadFullException.class, bulkhead::acquire);
+
+        assertTrue(e.getMessage().contains("wait timed out"), e.getMessage());
+        assertEquals(1.0, meters.get("app.bulkhead.rejected").functionCounter().count());
+        assertEquals(0.0, gauge("app.bulkhead.queued"));
+        assertEquals(1.0, gauge("app.bulkhead.active"));
+    }
+
+    @Test
+    void callReleasesItsSlotWhenTheWorkFails() {
+        Bulkhead bulkhead = bulkhead(1, 0, Duration.ZERO);
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(0, bulkhead.stats().get("active"));
+        assertEquals("ok", bulkhead.call(() -> "ok"));
+    }
+
+    private Bulkhead bulkhead(int maxConcurrent, int maxQueued, Duration maxWait) {
+        Bulkhead bulkhead = new Bulkhead("test", maxConcurrent, maxQueued, maxWait);
+        bulkhead.bindTo(meters);
+        return bulkhead;
+    }
+
+    private double gauge(String name) {
+        return meters.get(name).tag("name", "test").gauge().value();
+    }
+
+    private void awaitGauge(String name, double value) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (gauge(name) != value && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(value, gauge(name));
+    }
+}
@@ -0,0 +1,106 @@
+package com.javatestbank.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN = Duration.ofMillis(100);
+
+    // Window of 4, all 4 recorded before judging, opens at 50% failures
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 0.5, OPEN);
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        call(true);
+        call(false);
+        call(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        call(false); // 2 of 4 failed
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.isCallPermitted());
+        assertEquals(1L, breaker.stats().get("rejected"));
+    }
+
+    @Test
+    void staysClosedBelowTheMinimumCalls() {
+        call(false);
+        call(false);
+        call(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        call(false);
+        call(true);
+        call(true);
+        call(true); // 1 of 4 failed
+        call(true); // The failure slides out
+        call(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(1, breaker.stats().get("failedCalls"));
+    }
+
+    @Test
+    void letsASingleProbeThroughOnceTheOpenPeriodEnds() throws Exception {
+        tripOpen();
+        Thread.sleep(OPEN.toMillis() + 50);
+
+        // Checking availability must not claim the probe
+        assertTrue(breaker.isCallPermitted());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.stats().get("recordedCalls"));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedProbeOpensTheCircuitAgain() throws Exception {
+        tripOpen();
+        Thread.sleep(OPEN.toMillis() + 50);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        Thread.sleep(OPEN.toMillis() + 50);
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void ignoredProbeReleasesItForTheNextCaller() throws Exception {
+        tripOpen();
+        Thread.sleep(OPEN.toMillis() + 50);
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onIgnored();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) call(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void call(boolean succeeds) {
+        assertTrue(breaker.tryAcquire());
+        if (succeeds) breaker.onSuccess();
+        else breaker.onFailure();
+    }
+}
@@ -0,0 +1,137 @@
+package com.javatestbank.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.QuestionSnapshot;
+import com.javatestbank.backend.repository.AIAnalysisCacheRepository;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Drives ExplanationService through the real HTTP provider against a local stub
+ * that fails the first call and answers the rest.
+ */
+class ExplanationServiceTest {
+
+    private static final String COMPLETION = """
+            {"choices":[{"message":{"role":"assistant","content":"{\\"correctIndex\\":0,\\"explanation\\":\\"Strings are immutable.\\"}"}}],\
+            "usage":{"prompt_tokens":10,"completion_tokens":8,"total_tokens":18}}""";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger(1);
+    private final QuestionRepository questionRepository = mock(QuestionRepository.class);
+    private final AIAnalysisCache analysisCache = new AIAnalysisCache(mock(AIAnalysisCacheRepository.class), 100, 720, 1, 0);
+    private HttpServer stub;
+    private ExplanationService service;
+
+    @BeforeEach
+    void start() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.createContext("/v1/chat/completions", this::handle);
+        stub.start();
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        HttpChatCompletionProvider provider = new HttpChatCompletionProvider(new ObjectMapper(), meters,
+                "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1", "test-key",
+                Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ZERO);
+        AIService aiService = new AIService(provider, new ObjectMapper(), analysisCache, meters,
+                new Bulkhead("ai", 2, 10, Duration.ofSeconds(1)),
+                new CircuitBreaker("ai", 20, 10, 0.5, Duration.ofSeconds(30)));
+        service = new ExplanationService(aiService, questionRepository, mock(QuestionCache.class), 1, 10, 300, 1_000);
+    }
+
+    @AfterEach
+    void stop() {
+        service.shutdown();
+        analysisCache.shutdown();
+        stub.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        calls.incrementAndGet();
+        boolean fail = failuresLeft.getAndDecrement() > 0;
+        byte[] body = (fail ? "{\"error\":\"upstream overloaded\"}" : COMPLETION).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(fail ? 500 : 200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Test
+    void failedGenerationBacksOffBeforeRetrying() throws Exception {
+        QuestionSnapshot question = question(7L);
+
+        assertEquals(ExplanationService.STATUS_PENDING, service.ensure(question));
+        CompletableFuture<String> first = service.request(question);
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+
+        // Checks during the backoff neither queue work nor reach the provider
+        assertTrue(service.isBackingOff(7L));
+        assertEquals(ExplanationService.STATUS_UNAVAILABLE, service.ensure(question));
+        assertTrue(service.request(question).isCompletedExceptionally());
+        assertEquals(1, calls.get());
+        verify(questionRepository, never()).updateExplanation(7L, "Strings are immutable.");
+
+        Thread.sleep(400);
+        assertFalse(service.isBackingOff(7L));
+        assertEquals("Strings are immutable.", service.request(question).get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+        verify(questionRepository).updateExplanation(7L, "Strings are immutable.");
+        assertFalse(service.isBackingOff(7L));
+    }
+
+    @Test
+    void consecutiveFailuresDoubleTheBackoff() throws Exception {
+        failuresLeft.set(2);
+        QuestionSnapshot question = question(8L);
+
+        assertThrows(ExecutionException.class, () -> service.request(question).get(5, TimeUnit.SECONDS));
+        Thread.sleep(400);
+        assertThrows(ExecutionException.class, () -> service.request(question).get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+
+        // Second failure waits 600 ms, so the first backoff's 300 ms is not enough any more
+        Thread.sleep(400);
+        assertTrue(service.isBackingOff(8L));
+        Thread.sleep(400);
+        assertEquals("Strings are immutable.", service.request(question).get(5, TimeUnit.SECONDS));
+        assertEquals(3, calls.get());
+    }
+
+    private static QuestionSnapshot question(Long id) {
+        Question q = new Question();
+        q.setId(id);
+        q.setText("Which statement about String is true?");
+        q.setOptions(List.of("It is immutable", "It is mutable"));
+        q.setCorrectIndex(0);
+        return QuestionSnapshot.of(q);
+    }
+}
@@ -0,0 +1,172 @@
+package com.javatestbank.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the provider against a local stub whose n-th request gets the n-th scripted
+ * reply, so hedged attempts can be made slow, fast or failing independently.
+ */
+class HttpChatCompletionProviderTest {
+
+    private record Reply(long delayMillis, int status, String body) {}
+
+    private final List<Reply> script = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final ExecutorService stubThreads = Executors.newCachedThreadPool();
+    private HttpServer stub;
+
+    @BeforeEach
+    void start() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.createContext("/v1/chat/completions", this::handle);
+        stub.setExecutor(stubThreads); // Hedged attempts must be served concurrently
+        stub.start();
+    }
+
+    @AfterEach
+    void stop() {
+        stub.stop(0);
+        stubThreads.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        int n = requests.getAndIncrement();
+        Reply reply = script.get(Math.min(n, script.size() - 1));
+        try {
+            Thread.sleep(reply.delayMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException ignored) {
+            // The client cancelled this attempt
+        }
+    }
+
+    @Test
+    void returnsTheBodyOfASuccessfulCall() {
+        script.add(new Reply(0, 200, "ok"));
+
+        assertEquals("ok", provider(Duration.ofSeconds(2), Duration.ZERO).complete(Map.of("model", "m")));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void errorStatusSurfacesAsRestClientResponseException() {
+        script.add(new Reply(0, 503, "{\"error\":\"overloaded\"}"));
+
+        RestClientResponseException e = assertThrows(RestClientResponseException.class,
+                () -> provider(Duration.ofSeconds(2), Duration.ZERO).complete(Map.of()));
+        assertEquals(503, e.getStatusCode().value());
+    }
+
+    @Test
+    void slowPrimaryIsOvertakenByTheHedge() {
+        HttpChatCompletionProvider provider = warmedUp(Duration.ofSeconds(3), Duration.ofMillis(100));
+        script.add(new Reply(1_500, 200, "primary"));
+        script.add(new Reply(0, 200, "hedge"));
+
+        double hedgedBefore = meters.counter("app.ai.hedged").count();
+        long start = System.nanoTime();
+        String body = provider.complete(Map.of());
+
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        assertEquals("hedge", body);
+        assertTrue(elapsed < 1_000, "took " + elapsed + "ms");
+        assertEquals(hedgedBefore + 1, meters.counter("app.ai.hedged").count());
+    }
+
+    @Test
+    void fastFailingHedgeDoesNotBeatTheSlowPrimary() {
+        HttpChatCompletionProvider provider = warmedUp(Duration.ofSeconds(3), Duration.ofMillis(100));
+        script.add(new Reply(400, 200, "primary"));
+        script.add(new Reply(0, 503, "{\"error\":\"overloaded\"}"));
+
+        assertEquals("primary", provider.complete(Map.of()));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void failsWithTheErrorStatusWhenBothAttemptsFail() {
+        HttpChatCompletionProvider provider = warmedUp(Duration.ofSeconds(3), Duration.ofMillis(100));
+        script.add(new Reply(300, 502, "bad gateway"));
+        script.add(new Reply(0, 503, "overloaded"));
+
+        RestClientResponseException e = assertThrows(RestClientResponseException.class,
+                () -> provider.complete(Map.of()));
+        assertTrue(e.getStatusCode().is5xxServerError());
+    }
+
+    @Test
+    void deadlineBoundsTheWholeCall() {
+        script.add(new Reply(3_000, 200, "too late"));
+
+        long start = System.nanoTime();
+        ResourceAccessException e = assertThrows(ResourceAccessException.class,
+                () -> provider(Duration.ofMillis(300), Duration.ZERO).complete(Map.of()));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000, e.getMessage());
+    }
+
+    @Test
+    void deadlineAlsoBoundsHedgedCalls() {
+        HttpChatCompletionProvider provider = warmedUp(Duration.ofMillis(400), Duration.ofMillis(100));
+        script.add(new Reply(3_000, 200, "too late"));
+
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> provider.complete(Map.of()));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+        assertEquals(2, requests.get());
+    }
+
+    /**
+     * A client's first call pays for class loading and the connection, which alone can
+     * outlast {@code hedgeAfter}, so hedging tests answer one call before scripting the
+     * ones they measure.
+     */
+    private HttpChatCompletionProvider warmedUp(Duration deadline, Duration hedgeAfter) {
+        HttpChatCompletionProvider provider = provider(deadline, hedgeAfter);
+        script.add(new Reply(0, 200, "warm-up"));
+        assertEquals("warm-up", provider.complete(Map.of()));
+        script.clear();
+        requests.set(0);
+        return provider;
+    }
+
+    private HttpChatCompletionProvider provider(Duration deadline, Duration hedgeAfter) {
+        return new HttpChatCompletionProvider(new ObjectMapper(), meters,
+                "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1/", "test-key",
+                Duration.ofSeconds(1), deadline, hedgeAfter);
+    }
+}
@@ -0,0 +1,75 @@
+package com.javatestbank.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportJobServiceTest {
+
+    private final ImportJobService jobs = new ImportJobService(1, 1, 60);
+
+    @AfterEach
+    void shutdown() {
+        jobs.shutdown();
+    }
+
+    @Test
+    void reportsTheResponseOnceFinished() throws Exception {
+        String id = jobs.submit("bulk", () -> ResponseEntity.badRequest().body(Map.of("message", "nothing to import")));
+
+        Map<String, Object> status = awaitFinished(id);
+        assertEquals(ImportJobService.STATUS_DONE, status.get("status"));
+        assertEquals(400, status.get("httpStatus"));
+        assertEquals(Map.of("message", "nothing to import"), status.get("result"));
+    }
+
+    @Test
+    void failuresBecomeAFailedJob() throws Exception {
+        String id = jobs.submit("bulk", () -> { throw new IllegalStateException("boom"); });
+
+        Map<String, Object> status = awaitFinished(id);
+        assertEquals(ImportJobService.STATUS_FAILED, status.get("status"));
+        assertEquals(500, status.get("httpStatus"));
+    }
+
+    @Test
+    void refusesWorkBeyondTheQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            jobs.submit("bulk", () -> { await(release); return ResponseEntity.ok().build(); }); // Running
+            jobs.submit("bulk", () -> ResponseEntity.ok().build()); // Queued
+            assertThrows(ImportQueueFullException.class, () -> jobs.submit("bulk", () -> ResponseEntity.ok().build()));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void unknownIdsAreEmpty() {
+        assertTrue(jobs.status("missing").isEmpty());
+    }
+
+    private Map<String, Object> awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> status = jobs.status(id).orElseThrow();
+            if (status.containsKey("finishedAt")) return status;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("job " + id + " did not finish");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.javatestbank.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryQuestionSearchIndexTest {
+
+    private final InMemoryQuestionSearchIndex index = new InMemoryQuestionSearchIndex();
+
+    @Test
+    void queryTermsMatchAsPrefixes() {
+        index.put(1, "Which interface does ArrayList implement?", List.of("Collection", "Map"), null);
+
+        assertEquals(List.of(1L), ids("arr"));
+        assertEquals(List.of(1L), ids("implement"));
+        assertEquals(List.of(), ids("list"));
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        index.put(1, "String equals compares content", List.of(), null);
+        index.put(2, "String identity uses ==", List.of(), null);
+
+        assertEquals(List.of(1L), ids("string", "equal"));
+        assertEquals(List.of(1L, 2L), ids("string"));
+        assertEquals(List.of(), ids("string", "hashcode"));
+    }
+
+    @Test
+    void textOutranksOptionsWhichOutrankCode() {
+        index.put(1, "Unrelated", List.of(), "volatile int x;");
+        index.put(2, "Unrelated", List.of("volatile"), null);
+        index.put(3, "What does volatile guarantee?", List.of(), null);
+
+        List<QuestionSearchService.Hit> hits = index.search(List.of("volatile"), 10);
+
+        assertEquals(List.of(3L, 2L, 1L), hits.stream().map(QuestionSearchService.Hit::id).toList());
+        assertEquals(InMemoryQuestionSearchIndex.TEXT_WEIGHT, hits.get(0).rank());
+        assertEquals(InMemoryQuestionSearchIndex.OPTION_WEIGHT, hits.get(1).rank());
+        assertEquals(InMemoryQuestionSearchIndex.CODE_WEIGHT, hits.get(2).rank());
+    }
+
+    @Test
+    void repeatedTermsAddUpAndTiesGoToTheLowerId() {
+        index.put(5, "Thread start", List.of(), null);
+        index.put(4, "Thread start", List.of(), null);
+        index.put(6, "Thread start", List.of("Thread.run"), null);
+
+        assertEquals(List.of(6L, 4L, 5L), ids("thread"));
+        assertEquals(List.of(6L), index.search(List.of("thread"), 1).stream().map(QuestionSearchService.Hit::id).toList());
+    }
+
+    @Test
+    void reindexingReplacesTheOldTerms() {
+        index.put(1, "HashMap allows one null key", List.of(), null);
+        index.put(1, "TreeMap keeps keys sorted", List.of(), null);
+
+        assertEquals(List.of(), ids("hashmap"));
+        assertEquals(List.of(1L), ids("treemap"));
+        assertEquals(1, index.search(List.of("key"), 10).size());
+    }
+
+    @Test
+    void removedQuestionsNoLongerMatch() {
+        index.put(1, "Checked exceptions must be declared", List.of(), null);
+        index.put(2, "Unchecked exceptions extend RuntimeException", List.of(), null);
+
+        index.remove(1);
+        index.remove(99); // Unknown ids are ignored
+
+        assertEquals(List.of(2L), ids("exceptions"));
+        assertEquals(List.of(), ids("checked"));
+    }
+
+    private List<Long> ids(String... terms) {
+        return index.search(List.of(terms), 10).stream().map(QuestionSearchService.Hit::id).toList();
+    }
+}
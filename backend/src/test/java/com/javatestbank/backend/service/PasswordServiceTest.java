@@ -0,0 +1,72 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.User;
+import com.javatestbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+class PasswordServiceTest {
+
+    private final UserRepository users = Mockito.mock(UserRepository.class);
+    private final List<PasswordService> services = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        services.forEach(PasswordService::shutdown);
+    }
+
+    @Test
+    void verifiesHashedPasswords() {
+        PasswordService passwords = service(4, 2, 10);
+        User user = new User("alice", passwords.hash("secret").join());
+        user.setId(1L);
+
+        assertTrue(PasswordService.isHashed(user.getPassword()));
+        assertTrue(passwords.verify(user, "secret").join());
+        assertTrue(passwords.verify(user, "secret").join()); // Served by the login cache
+        assertFalse(passwords.verify(user, "Secret").join());
+    }
+
+    @Test
+    void upgradesPlaintextRowsOnLogin() {
+        PasswordService passwords = service(4, 2, 10);
+        User legacy = new User("bob", "hunter2");
+        legacy.setId(2L);
+
+        assertFalse(passwords.verify(legacy, "wrong").join());
+        assertFalse(PasswordService.isHashed(legacy.getPassword()));
+
+        assertTrue(passwords.verify(legacy, "hunter2").join());
+        assertTrue(PasswordService.isHashed(legacy.getPassword()));
+        verify(users).save(legacy);
+    }
+
+    @Test
+    void rejectsWorkBeyondTheQueue() {
+        PasswordService passwords = service(12, 1, 1); // ~0.25s per hash: one running, one queued
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) futures.add(passwords.hash("pw" + i));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> futures.get(3).join());
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+
+    private PasswordService service(int strength, int workers, int queueCapacity) {
+        PasswordService service = new PasswordService(users, strength, workers, queueCapacity, 300, 100, "admin123");
+        services.add(service);
+        return service;
+    }
+}
@@ -0,0 +1,117 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuestionCacheTest {
+
+    // Ids up to this exist; anything above is unknown
+    private static final long EXISTING = 10_000;
+
+    private final QuestionRepository repository = mock(QuestionRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAllById(anyIterable())).thenAnswer(inv -> {
+            loads.incrementAndGet();
+            Iterable<Long> ids = inv.getArgument(0);
+            List<Question> found = new ArrayList<>();
+            for (Long id : ids) {
+                if (id > EXISTING) continue;
+                Question q = new Question("Question " + id, List.of("a", "b"), 0, "because");
+                q.setId(id);
+                found.add(q);
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void loadsOnceThenServesFromMemory() {
+        QuestionCache cache = new QuestionCache(repository, transactionManager, 100, 5_000);
+
+        assertEquals("Question 1", cache.get(1L).getText());
+        assertEquals("Question 1", cache.get(1L).getText());
+        assertEquals(1, loads.get());
+
+        cache.invalidate(1L);
+        assertNotNull(cache.get(1L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void unknownIdsAreRememberedBriefly() throws Exception {
+        QuestionCache cache = new QuestionCache(repository, transactionManager, 100, 200);
+
+        assertNull(cache.get(EXISTING + 1));
+        assertNull(cache.get(EXISTING + 1));
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.stats().get("negativeHits"));
+
+        Thread.sleep(300);
+        assertNull(cache.get(EXISTING + 1));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void sizeStaysBoundedAndRecentEntriesSurvive() {
+        QuestionCache cache = new QuestionCache(repository, transactionManager, 1_000, 5_000);
+
+        for (long id = 1; id <= 5_000; id++) {
+            cache.get(id);
+            cache.get(1L); // Kept hot throughout
+        }
+
+        assertTrue((int) cache.stats().get("entries") <= 1_000, "entries " + cache.stats().get("entries"));
+        int before = loads.get();
+        cache.get(1L);
+        cache.get(5_000L);
+        assertEquals(before, loads.get());
+    }
+
+    @Test
+    void concurrentReadsAndInvalidationsStayConsistent() throws Exception {
+        QuestionCache cache = new QuestionCache(repository, transactionManager, 500, 5_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20_000; i++) {
+                        long id = random.nextLong(1, 2_000);
+                        if (i % 50 == 0) cache.invalidate(id);
+                        assertEquals("Question " + id, cache.get(id).getText());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue((int) cache.stats().get("entries") <= 600, "entries " + cache.stats().get("entries"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionChapterBackfillTest extends ApiTestSupport {
+
+    private static final int LEGACY_ROWS = 600;
+
+    @Autowired private QuestionChapterBackfill backfill;
+    @Autowired private QuestionRepository questionRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void backfillUpdatesInBatchesAndMarksRowsWithoutChapter() {
+        // Rows as they looked before the chapter column existed
+        String tag = "legacy" + System.nanoTime();
+        List<Long> chaptered = new ArrayList<>();
+        for (int i = 0; i < LEGACY_ROWS; i++) chaptered.add(insertLegacy("77.1 " + tag + " question " + i));
+        long unchaptered = insertLegacy(tag + " has no chapter prefix");
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertTrue(backfill.backfill() >= LEGACY_ROWS + 1);
+        // One SELECT plus one UPDATE per 500 ids and chapter, not one per row
+        assertTrue(stats.getPrepareStatementCount() <= 4, "prepared " + stats.getPrepareStatementCount() + " statements");
+
+        assertEquals(LEGACY_ROWS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM questions WHERE chapter = 77 AND text LIKE ?", Integer.class, "%" + tag + "%"));
+        assertEquals(Question.NO_CHAPTER, jdbcTemplate.queryForObject(
+                "SELECT chapter FROM questions WHERE id = ?", Integer.class, unchaptered));
+
+        // The sentinel keeps the row from being scanned again, and reads back as "no chapter"
+        assertEquals(0, backfill.backfill());
+        assertNull(questionRepository.findById(unchaptered).orElseThrow().getChapter());
+        assertTrue(questionRepository.findAllIdsAndChapters().stream()
+                .anyMatch(row -> ((Number) row[0]).longValue() == unchaptered && row[1] == null));
+        assertTrue(questionRepository.findIdsByChapterIn(Set.of(77)).containsAll(chaptered));
+    }
+
+    @Test
+    void chapterColumnIsIndexed() {
+        Integer indexes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE LOWER(INDEX_NAME) = 'idx_questions_chapter'", Integer.class);
+        assertEquals(1, indexes);
+    }
+
+    private long insertLegacy(String text) {
+        // Each sequence value reserves a block the generator will never hand out
+        long id = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR questions_seq", Long.class);
+        jdbcTemplate.update("INSERT INTO questions (id, text, correct_index, chapter) VALUES (?, ?, 0, NULL)", id, text);
+        return id;
+    }
+}
@@ -0,0 +1,102 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionDuplicateDetectorTest extends ApiTestSupport {
+
+    private final Random random = new Random();
+
+    @Autowired private QuestionDuplicateDetector detector;
+    @Autowired private QuestionRepository questionRepository;
+
+    @Test
+    void rebuiltIndexMatchesReformattedCopies() {
+        Question stored = questionRepository.save(question(words(14), List.of(words(3), words(3), words(3)), "int x = 1;"));
+        detector.rebuild();
+
+        // Case, punctuation and spacing changes do not hide a copy
+        Question copy = question("  " + stored.getText().toUpperCase() + "?!", stored.getOptions(), "int x=1;");
+        List<QuestionDuplicateDetector.Verdict> verdicts = detector.screen(List.of(copy), QuestionDuplicateDetector.Mode.SKIP);
+
+        assertEquals(1, verdicts.size());
+        assertEquals(QuestionDuplicateDetector.Action.SKIPPED, verdicts.get(0).action());
+        assertEquals(stored.getId(), verdicts.get(0).duplicateOf());
+    }
+
+    @Test
+    void distinctQuestionsPass() {
+        Question stored = questionRepository.save(question(words(14), List.of(words(3), words(3)), null));
+        detector.add(List.of(stored));
+
+        Question other = question(words(14), List.of(words(3), words(3)), null);
+        assertTrue(detector.screen(List.of(other), QuestionDuplicateDetector.Mode.SKIP).isEmpty());
+    }
+
+    @Test
+    void modesDecideWhatHappensToAMatch() {
+        Question stored = questionRepository.save(question(words(14), List.of(words(3), words(3)), null));
+        detector.add(List.of(stored));
+
+        Question reported = question(stored.getText(), stored.getOptions(), null);
+        assertEquals(QuestionDuplicateDetector.Action.REPORTED,
+                detector.screen(List.of(reported), QuestionDuplicateDetector.Mode.REPORT).get(0).action());
+        assertNull(reported.getId());
+
+        // Merging points the record at the existing row; a second copy in the same upload is skipped
+        Question merged = question(stored.getText(), stored.getOptions(), null);
+        Question again = question(stored.getText(), stored.getOptions(), null);
+        List<QuestionDuplicateDetector.Verdict> verdicts =
+                detector.screen(List.of(merged, again), QuestionDuplicateDetector.Mode.MERGE);
+        assertEquals(QuestionDuplicateDetector.Action.MERGED, verdicts.get(0).action());
+        assertEquals(stored.getId(), merged.getId());
+        assertEquals(QuestionDuplicateDetector.Action.SKIPPED, verdicts.get(1).action());
+    }
+
+    @Test
+    void repeatsWithinOneUploadKeepTheFirstCopy() {
+        String text = words(14);
+        List<String> options = List.of(words(3), words(3));
+        List<QuestionDuplicateDetector.Verdict> verdicts = detector.screen(
+                Arrays.asList(question(text, options, null), null, question(text, options, null)),
+                QuestionDuplicateDetector.Mode.SKIP);
+
+        assertEquals(1, verdicts.size());
+        assertEquals(2, verdicts.get(0).position());
+        assertEquals(0, verdicts.get(0).duplicateOfRecord());
+    }
+
+    @Test
+    void removedQuestionsNoLongerMatch() {
+        Question stored = questionRepository.save(question(words(14), List.of(words(3), words(3)), null));
+        detector.add(List.of(stored));
+        detector.remove(stored.getId());
+
+        Question copy = question(stored.getText(), stored.getOptions(), null);
+        assertTrue(detector.screen(List.of(copy), QuestionDuplicateDetector.Mode.SKIP).isEmpty());
+    }
+
+    private static Question question(String text, List<String> options, String code) {
+        return new Question(text, options, 0, "because", code);
+    }
+
+    private String words(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) sb.append(' ');
+            for (int c = 0; c < 6; c++) sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
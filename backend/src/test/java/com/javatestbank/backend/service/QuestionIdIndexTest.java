@@ -0,0 +1,67 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuestionIdIndexTest {
+
+    private static final int BANK = 10_000;
+
+    private final QuestionRepository repository = mock(QuestionRepository.class);
+    private final QuestionIdIndex index = new QuestionIdIndex(repository);
+
+    @BeforeEach
+    void setUp() {
+        // Ids 1..BANK in chapters 1..10; every hundredth row has no chapter
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= BANK; id++) rows.add(new Object[] { id, id % 100 == 0 ? null : (int) (id % 10) + 1 });
+        when(repository.findAllIdsAndChapters()).thenReturn(rows);
+        index.refresh();
+    }
+
+    @Test
+    void topUpFillsTheShortfallWithDistinctIds() {
+        // Only id 7 is ever accepted, so all but one pick come from the uniform top-up
+        long[] ids = index.sampleWeighted(20, null, (id, chapter) -> id == 7 ? 1.0 : 0.0, 1.0);
+
+        assertEquals(20, ids.length);
+        assertEquals(20, Arrays.stream(ids).distinct().count());
+    }
+
+    @Test
+    void topUpStaysWithinTheRequestedChapters() {
+        long[] ids = index.sampleWeighted(50, Set.of(3, 4), (id, chapter) -> 0.0, 1.0);
+
+        assertEquals(50, ids.length);
+        assertEquals(50, Arrays.stream(ids).distinct().count());
+        assertTrue(Arrays.stream(ids).allMatch(id -> id % 100 != 0 && (id % 10 == 2 || id % 10 == 3)));
+    }
+
+    @Test
+    void requestLargerThanThePartitionReturnsAllOfIt() {
+        long[] ids = index.sampleWeighted(5_000, Set.of(5), (id, chapter) -> 0.5, 1.0);
+
+        // Chapter 5 holds the ids ending in 4
+        assertEquals(BANK / 10, ids.length);
+        assertEquals(BANK / 10, Arrays.stream(ids).distinct().count());
+    }
+
+    @Test
+    void uniformSampleIsDistinct() {
+        long[] ids = index.sample(BANK, null);
+
+        assertEquals(BANK, ids.length);
+        assertEquals(BANK, Arrays.stream(ids).distinct().count());
+    }
+}
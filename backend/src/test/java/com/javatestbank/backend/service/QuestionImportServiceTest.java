@@ -0,0 +1,94 @@
+package com.javatestbank.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatestbank.backend.repository.QuestionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuestionImportServiceTest {
+
+    private final QuestionRepository repository = mock(QuestionRepository.class);
+    private final QuestionEnrichmentService enrichment = mock(QuestionEnrichmentService.class);
+    private final QuestionDuplicateDetector detector = mock(QuestionDuplicateDetector.class);
+    private QuestionImportService importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new QuestionImportService(new ObjectMapper(), repository, enrichment,
+                mock(QuestionSearchService.class), detector, mock(QuestionCache.class), new SimpleMeterRegistry(), 2);
+        when(detector.screen(anyList(), any())).thenReturn(List.of());
+        when(enrichment.enrichAll(anyList())).thenAnswer(inv -> {
+            List<?> questions = inv.getArgument(0);
+            return IntStream.range(0, questions.size()).mapToObj(QuestionEnrichmentService.Result::ok).toList();
+        });
+    }
+
+    @Test
+    void commitsEveryBatchIncludingTheTrailingOne() {
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        QuestionImportService.StreamReport report = importer.importStream(records(5), QuestionDuplicateDetector.Mode.SKIP);
+
+        assertNull(report.aborted());
+        assertEquals(5, report.imported());
+        assertEquals(3, report.batches());
+        verify(repository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void failedBatchIsReportedOnceAndNotResaved() {
+        when(repository.saveAll(anyList()))
+                .thenAnswer(inv -> inv.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("boom"));
+
+        QuestionImportService.StreamReport report = importer.importStream(records(5), QuestionDuplicateDetector.Mode.SKIP);
+
+        assertNotNull(report.aborted());
+        assertEquals(2, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(2, 3), report.errors().stream().map(e -> e.get("index")).toList());
+        // The trailing flush must not screen, enrich or save the failed batch a second time
+        verify(detector, times(2)).screen(anyList(), any());
+        verify(enrichment, times(2)).enrichAll(anyList());
+        verify(repository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void badRecordCostsOnlyItself() {
+        when(repository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        String body = "{\"question\":\"Q0\"}\n{\"question\":\"\"}\n{\"question\":\"Q2\"}\n";
+
+        QuestionImportService.StreamReport report = importer.importStream(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), QuestionDuplicateDetector.Mode.SKIP);
+
+        assertEquals(3, report.processed());
+        assertEquals(2, report.imported());
+        assertEquals(1, report.failed());
+        assertEquals(1, report.errors().get(0).get("index"));
+    }
+
+    private static ByteArrayInputStream records(int n) {
+        String json = IntStream.range(0, n)
+                .mapToObj(i -> "{\"question\":\"Q" + i + "\",\"answers\":[{\"answer\":\"a\",\"is_right\":true},{\"answer\":\"b\"}]}")
+                .collect(Collectors.joining(",", "[", "]"));
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,41 @@
+package com.javatestbank.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestionStatsStoreTest {
+
+    // record/snapshot never touch the repository; only rebuild() does
+    private final QuestionStatsStore store = new QuestionStatsStore(null);
+
+    @Test
+    void countsNewAnswersAndMovesChangedSelections() {
+        store.record(1L, null, List.of(0));
+        store.record(1L, null, List.of(2));
+        store.record(1L, List.of(2), List.of(1)); // Same user changed their answer
+
+        Map<String, Object> snapshot = store.snapshot(1L);
+        assertEquals(2L, snapshot.get("total"));
+        assertEquals(Map.of(0, 1L, 1, 1L, 2, 0L, 3, 0L), snapshot.get("counts"));
+    }
+
+    @Test
+    void ignoresOutOfRangeOptions() {
+        store.record(2L, null, List.of(Integer.MAX_VALUE));
+        store.record(2L, null, List.of(100_000_000));
+        store.record(2L, null, List.of(-5));
+
+        Map<String, Object> snapshot = store.snapshot(2L);
+        assertEquals(3L, snapshot.get("total"));
+        assertEquals(Map.of(0, 0L, 1, 0L, 2, 0L, 3, 0L), snapshot.get("counts"));
+    }
+
+    @Test
+    void reportsEmptyStatsForUnknownQuestions() {
+        assertEquals(Map.of("total", 0), store.snapshot(99L));
+    }
+}
@@ -0,0 +1,54 @@
+package com.javatestbank.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "test-token-secret-with-at-least-32-bytes";
+
+    private final TokenService tokens = new TokenService(SECRET, 12);
+
+    @Test
+    void roundTripsThePrincipal() {
+        TokenService.Principal student = new TokenService.Principal(7L, "alice|bob", false);
+        assertEquals(student, tokens.verify(tokens.issue(student)).orElseThrow());
+
+        TokenService.Principal admin = new TokenService.Principal(null, "admin", true);
+        assertEquals(admin, tokens.verify(tokens.issue(admin)).orElseThrow());
+    }
+
+    @Test
+    void rejectsATamperedPayload() {
+        String token = tokens.issue(new TokenService.Principal(7L, "alice", false));
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("7|1|9999999999|alice".getBytes(StandardCharsets.UTF_8));
+        assertTrue(tokens.verify(forged + token.substring(token.indexOf('.'))).isEmpty());
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherSecret() {
+        TokenService other = new TokenService("another-secret-that-is-also-32-bytes-long", 12);
+        assertTrue(tokens.verify(other.issue(new TokenService.Principal(7L, "alice", false))).isEmpty());
+    }
+
+    @Test
+    void rejectsExpiredAndMalformedTokens() {
+        TokenService expired = new TokenService(SECRET, -1);
+        assertTrue(tokens.verify(expired.issue(new TokenService.Principal(7L, "alice", false))).isEmpty());
+        assertTrue(tokens.verify(null).isEmpty());
+        assertTrue(tokens.verify("no-dot").isEmpty());
+        assertTrue(tokens.verify("!!!.???").isEmpty());
+    }
+
+    @Test
+    void refusesShortSecrets() {
+        assertThrows(IllegalStateException.class, () -> new TokenService("short", 12));
+    }
+}
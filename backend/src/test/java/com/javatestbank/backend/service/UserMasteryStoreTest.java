@@ -0,0 +1,86 @@
+package com.javatestbank.backend.service;
+
+import com.javatestbank.backend.ApiTestSupport;
+import com.javatestbank.backend.model.Question;
+import com.javatestbank.backend.model.User;
+import com.javatestbank.backend.repository.QuestionRepository;
+import com.javatestbank.backend.repository.UserAnswerRepository;
+import com.javatestbank.backend.repository.UserAnswerUpsertRepository;
+import com.javatestbank.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserMasteryStoreTest extends ApiTestSupport {
+
+    @Autowired UserAnswerRepository userAnswerRepository;
+    @Autowired UserAnswerUpsertRepository upsertRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired QuestionRepository questionRepository;
+    @Autowired QuestionStatsStore questionStatsStore;
+    @Autowired QuestionIdIndex questionIdIndex;
+    @Autowired QuestionCache questionCache;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private AnswerWriteBuffer buffer;
+    private UserMasteryStore store;
+    private Long first;
+    private Long second;
+    private Long userId;
+
+    @BeforeEach
+    void createStore() {
+        // Flushed only when a test asks for it
+        buffer = new AnswerWriteBuffer(userAnswerRepository, upsertRepository, userRepository, questionRepository,
+                questionStatsStore, transactionManager, "buffered", 3_600_000, 1000, 10_000);
+        store = new UserMasteryStore(userAnswerRepository, questionIdIndex, buffer, questionCache, 10);
+        first = questionRepository.save(new Question("8.1 Which interface does HashMap implement?",
+                List.of("Map", "List", "Set"), 0, "")).getId();
+        second = questionRepository.save(new Question("8.2 Which method compares contents?",
+                List.of("equals", "==", "hashCode"), 0, "")).getId();
+        userId = userRepository.save(new User("mastery-" + System.nanoTime(), "x")).getId();
+    }
+
+    @AfterEach
+    void stopBuffer() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void loadSeesAnswersStillInTheBuffer() {
+        buffer.submit(userId, first, 1, null, false);
+
+        // One wrong answer in chapter 8: accuracy (0 + 1) / (1 + 2)
+        assertEquals(UserMasteryStore.WRONG_WEIGHT * (2.0 - 1.0 / 3), store.weight(userId, first, 8), 1e-9);
+        assertEquals(UserMasteryStore.UNSEEN_WEIGHT * (2.0 - 1.0 / 3), store.weight(userId, second, 8), 1e-9);
+    }
+
+    @Test
+    void bufferedAnswerWinsOverTheStoredOne() {
+        buffer.submit(userId, first, 1, null, false);
+        buffer.flush();
+        buffer.submit(userId, first, 0, null, true);
+
+        // One correct answer in chapter 8: accuracy (1 + 1) / (1 + 2)
+        assertEquals(UserMasteryStore.MASTERED_WEIGHT * (2.0 - 2.0 / 3), store.weight(userId, first, 8), 1e-9);
+    }
+
+    @Test
+    void answersRecordedAfterLoadingApplyOnTop() {
+        buffer.submit(userId, first, 0, null, true);
+        store.weight(userId, first, 8);
+
+        buffer.submit(userId, second, 1, null, false);
+        store.record(userId, second, 8, false);
+
+        // Two answers in chapter 8, one correct: accuracy (1 + 1) / (2 + 2)
+        assertEquals(UserMasteryStore.WRONG_WEIGHT * 1.5, store.weight(userId, second, 8), 1e-9);
+        assertEquals(UserMasteryStore.MASTERED_WEIGHT * 1.5, store.weight(userId, first, 8), 1e-9);
+    }
+}
@@ -40,7 +40,7 @@ const AdminControls = ({ onQuestionAdded }) => {
             });
             alert('Question Posted Successfully!');
         } catch (err) {
-            alert('Failed to post question');
+            alert('Failed to post question: ' + err.message);
         } finally {
             setIsSubmitting(false);
         }
@@ -74,15 +74,17 @@ const AdminControls = ({ onQuestionAdded }) => {
             const firstItem = parsed[0];
             const isLegacyFormat = firstItem.hasOwnProperty('options') || firstItem.hasOwnProperty('correctIndex');
 
+            const onProgress = (status) => setBulkStatus(`Import ${status}... AI analysis runs in the background.`);
+            let report;
             if (isLegacyFormat) {
                 console.log("Detected Legacy/Internal JSON format. Using postQuestionsBulk...");
-                await api.postQuestionsBulk(parsed);
+                report = await api.postQuestionsBulk(parsed, onProgress);
             } else {
-                console.log("Detected New/Import JSON format. Using importQuestions...");
-                await api.importQuestions(jsonInput);
+                console.log("Detected New/Import JSON format. Using importQuestionsStream...");
+                report = await api.importQuestionsStream(jsonInput, onProgress);
             }
 
-            alert('Bulk Import Successful!');
+            alert(report?.message || 'Bulk Import Successful!');
             setJsonInput('');
             setIsBulkOpen(false);
             setBulkStatus('');
@@ -43,6 +43,7 @@ export const AuthProvider = ({ children }) => {
     };
 
     const logout = () => {
+        api.logout();
         setUser(null);
     };
 
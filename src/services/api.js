@@ -13,6 +13,80 @@ const getBaseUrl = () => {
 
 const API_BASE_URL = getBaseUrl();
 
+const maskToIndices = (mask) => {
+  const indices = [];
+  for (let i = 0; i < 31; i++) {
+    if (mask & (1 << i)) indices.push(i);
+  }
+  return indices;
+};
+
+// Bitsets are base64 of java.util.BitSet#toByteArray (bit i lives in byte i >> 3)
+const bitReader = (b64) => {
+  const bytes = atob(b64 || '');
+  return (i) => ((bytes.charCodeAt(i >> 3) || 0) >> (i & 7)) & 1;
+};
+
+// Expands /progress/compact into the { [questionId]: { selectedIndex, selectedIndices, feedback } } shape
+const decodeCompactProgress = (data) => {
+  const isMulti = bitReader(data.multi);
+  const isCorrect = bitReader(data.correct);
+  const answers = {};
+  let questionId = 0;
+  for (let i = 0; i < data.count; i++) {
+    questionId += data.ids[i];
+    const picked = maskToIndices(data.selections[i]);
+    const correctIndices = maskToIndices(data.answers[i]);
+    answers[questionId] = {
+      selectedIndex: isMulti(i) ? 0 : picked[0],
+      selectedIndices: isMulti(i) ? picked : [],
+      feedback: {
+        correct: isCorrect(i) === 1,
+        correctIndex: correctIndices.length > 0 ? correctIndices[0] : null,
+        correctIndices,
+        explanation: ''
+      }
+    };
+  }
+  return answers;
+};
+
+// Session from login/register; its signed token identifies the user to the backend
+let session = null;
+
+const authHeaders = () => (session ? { Authorization: `Bearer ${session.token}` } : {});
+
+const startSession = (userData) => {
+  session = userData && userData.token ? { name: userData.name, token: userData.token } : null;
+  return userData;
+};
+
+const sleep = (ms) => new Promise((resolve) => setTimeout(resolve, ms));
+
+// Bulk imports run as server-side jobs: the POST answers 202 with a job id, then the job is polled
+// until it finishes. Resolves with the import report, or throws with the server's message.
+const awaitImportJob = async (response, onProgress) => {
+  if (!response.ok) {
+    const errData = await response.json().catch(() => ({}));
+    throw new Error(errData.message || errData.error || `Import failed (Status: ${response.status})`);
+  }
+  const { jobId } = await response.json();
+  for (;;) {
+    await sleep(1000);
+    const poll = await fetch(`${API_BASE_URL}/admin/import-jobs/${jobId}`, { headers: authHeaders() });
+    if (!poll.ok) throw new Error(`Import status unavailable (Status: ${poll.status})`);
+    const job = await poll.json();
+    if (onProgress) onProgress(job.status);
+    if (job.status !== "queued" && job.status !== "running") {
+      const report = job.result || {};
+      if (job.httpStatus >= 400) {
+        throw new Error(report.aborted || report.message || `Import failed (Status: ${job.httpStatus})`);
+      }
+      return report;
+    }
+  }
+};
+
 export const api = {
   getQuestions: async (page = 0, size = 10) => {
     const response = await fetch(`${API_BASE_URL}/questions?page=${page}&size=${size}`);
@@ -20,38 +94,87 @@ export const api = {
     return await response.json();
   },
 
-  getQuizQuestions: async (count = 15, chapters = []) => {
-    let url = `${API_BASE_URL}/questions/quiz?count=${count}`;
+  // Cursor pagination: pass the previous response's nextCursor as "after"; view "summary" returns slim rows
+  scrollQuestions: async (after = 0, size = 20, view = 'full', includeTotal = false) => {
+    const response = await fetch(`${API_BASE_URL}/questions/scroll?after=${after}&size=${size}&view=${view}&includeTotal=${includeTotal}`);
+    if (!response.ok) throw new Error("Failed to fetch questions");
+    return await response.json();
+  },
+
+  searchQuestions: async (q, limit = 20) => {
+    const response = await fetch(`${API_BASE_URL}/questions/search?q=${encodeURIComponent(q)}&limit=${limit}`);
+    if (!response.ok) throw new Error("Failed to search questions");
+    return await response.json();
+  },
+
+  // mode 'adaptive' favours the signed-in user's missed/unseen questions and weak chapters
+  getQuizQuestions: async (count = 15, chapters = [], mode = 'random') => {
+    let url = `${API_BASE_URL}/questions/quiz?count=${count}&mode=${mode}`;
     if (chapters && chapters.length > 0) {
       url += `&chapters=${chapters.join(',')}`;
     }
-    const response = await fetch(url);
+    const response = await fetch(url, { headers: authHeaders() });
     if (!response.ok) throw new Error("Failed to fetch quiz questions");
     return await response.json();
   },
 
   checkAnswer: async (questionId, selectedOptionIndex, username, selectedIndices = null) => {
-    const body = { questionId, username };
+    const body = { questionId };
     if (selectedIndices) {
       body.selectedIndices = selectedIndices;
     } else {
       body.selectedOptionIndex = selectedOptionIndex;
     }
 
+    // Answers are recorded for the session user; quiz mode passes a placeholder name and stays anonymous
+    const auth = session && session.name === username ? authHeaders() : {};
     const response = await fetch(`${API_BASE_URL}/check-answer`, {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", ...auth },
       body: JSON.stringify(body)
     });
     if (!response.ok) throw new Error("Failed to check answer");
     return await response.json();
   },
 
+  // Explanations missing at check time are generated in the background ("pending");
+  // "unavailable" carries a placeholder while the AI provider is failing
+  getExplanation: async (questionId) => {
+    const response = await fetch(`${API_BASE_URL}/questions/${questionId}/explanation`);
+    if (!response.ok) throw new Error("Failed to fetch explanation");
+    return await response.json();
+  },
+
+  // Compact snapshot cached in localStorage; later loads only fetch answers changed since then
   getUserProgress: async (username) => {
     if (!username || username === 'admin') return {};
-    const response = await fetch(`${API_BASE_URL}/user/${username}/progress`);
-    if (!response.ok) return {};
-    return await response.json();
+    const cacheKey = `progress:${username}`;
+    let cached = null;
+    try {
+      cached = JSON.parse(localStorage.getItem(cacheKey));
+    } catch {
+      cached = null;
+    }
+
+    let url = `${API_BASE_URL}/user/${username}/progress/compact`;
+    const headers = { ...authHeaders() };
+    if (cached) {
+      url += `?since=${cached.version}`;
+      if (cached.etag) headers['If-None-Match'] = cached.etag;
+    }
+
+    const response = await fetch(url, { headers });
+    if (response.status === 304 && cached) return cached.answers;
+    if (!response.ok) return cached ? cached.answers : {};
+
+    const data = await response.json();
+    const answers = { ...(cached ? cached.answers : {}), ...decodeCompactProgress(data) };
+    try {
+      localStorage.setItem(cacheKey, JSON.stringify({ version: data.version, etag: response.headers.get('ETag'), answers }));
+    } catch {
+      // Storage full or disabled: next load just fetches the full snapshot again
+    }
+    return answers;
   },
 
   login: async (username, password) => {
@@ -62,7 +185,11 @@ export const api = {
     });
 
     if (!response.ok) return null;
-    return await response.json();
+    return startSession(await response.json());
+  },
+
+  logout: () => {
+    session = null;
   },
 
   register: async (username, password) => {
@@ -74,45 +201,55 @@ export const api = {
 
     if (response.status === 409) throw new Error("Username already taken");
     if (!response.ok) throw new Error("Registration failed");
-    return await response.json();
+    return startSession(await response.json());
   },
 
   postQuestion: async (questionData) => {
     const response = await fetch(`${API_BASE_URL}/admin/questions`, {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", ...authHeaders() },
       body: JSON.stringify(questionData)
     });
-    if (!response.ok) throw new Error("Failed to post question");
+    if (!response.ok) {
+      // 502 means the AI could not determine the answer; nothing was saved
+      const errData = await response.json().catch(() => ({}));
+      throw new Error(errData.error || "Failed to post question");
+    }
     return await response.json();
   },
 
-  postQuestionsBulk: async (questionsList) => {
+  postQuestionsBulk: async (questionsList, onProgress) => {
     const response = await fetch(`${API_BASE_URL}/admin/questions/bulk`, {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", ...authHeaders() },
       body: JSON.stringify(questionsList)
     });
-    if (!response.ok) throw new Error("Failed to bulk post questions");
-    return await response.json();
+    return awaitImportJob(response, onProgress);
   },
 
-  importQuestions: async (jsonImport) => {
+  importQuestions: async (jsonImport, onProgress) => {
     const response = await fetch(`${API_BASE_URL}/admin/questions/import`, {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", ...authHeaders() },
       body: jsonImport // Already stringified
     });
-    if (!response.ok) {
-      const errData = await response.json().catch(() => ({}));
-      throw new Error(errData.message || `Import failed (Status: ${response.status})`);
-    }
-    return await response.json();
+    return awaitImportJob(response, onProgress);
+  },
+
+  // Same payload as importQuestions; the server reads it incrementally and commits in batches
+  importQuestionsStream: async (jsonImport, onProgress) => {
+    const response = await fetch(`${API_BASE_URL}/admin/questions/import/stream`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json", ...authHeaders() },
+      body: jsonImport // Already stringified (JSON array or NDJSON)
+    });
+    return awaitImportJob(response, onProgress);
   },
 
   deleteQuestion: async (id) => {
     const response = await fetch(`${API_BASE_URL}/admin/questions/${id}`, {
-      method: "DELETE"
+      method: "DELETE",
+      headers: authHeaders()
     });
     if (!response.ok) throw new Error("Failed to delete question");
   }